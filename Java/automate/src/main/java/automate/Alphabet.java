@@ -0,0 +1,99 @@
+package automate;
+
+public final class Alphabet {
+
+    private long low;
+    private long high;
+
+    Alphabet() {
+    }
+
+    boolean add(char symbol){
+        if(symbol >= 128 || contains(symbol)){
+            return false;
+        }
+        if(symbol < 64){
+            low |= 1L << symbol;
+        }else{
+            high |= 1L << symbol;
+        }
+        return true;
+    }
+
+    boolean remove(char symbol){
+        if(!contains(symbol)){
+            return false;
+        }
+        if(symbol < 64){
+            low &= ~(1L << symbol);
+        }else{
+            high &= ~(1L << symbol);
+        }
+        return true;
+    }
+
+    void copyFrom(Alphabet other){
+        low = other.low;
+        high = other.high;
+    }
+
+    void retain(Alphabet other){
+        low &= other.low;
+        high &= other.high;
+    }
+
+    public boolean contains(char symbol){
+        return symbol < 128 && (((symbol < 64 ? low : high) >>> symbol) & 1) != 0;
+    }
+
+    public int size(){
+        return Long.bitCount(low) + Long.bitCount(high);
+    }
+
+    public boolean isEmpty(){
+        return (low | high) == 0;
+    }
+
+    public int indexOf(char symbol){
+        if(!contains(symbol)){
+            return -1;
+        }
+        long below = (1L << symbol) - 1;
+        return symbol < 64 ? Long.bitCount(low & below) : Long.bitCount(low) + Long.bitCount(high & below);
+    }
+
+    public char symbolAt(int index){
+        int symbol = -1;
+        for(int i = 0; i <= index; ++i){
+            symbol = next(symbol + 1);
+        }
+        if(index < 0 || symbol < 0){
+            throw new IndexOutOfBoundsException("No symbol at index " + index);
+        }
+        return (char)symbol;
+    }
+
+    public int next(int from){
+        if(from < 64){
+            long bits = low & (-1L << Math.max(from, 0));
+            if(bits != 0){
+                return Long.numberOfTrailingZeros(bits);
+            }
+            from = 64;
+        }
+        if(from >= 128){
+            return -1;
+        }
+        long bits = high & (-1L << from);
+        return bits == 0 ? -1 : 64 + Long.numberOfTrailingZeros(bits);
+    }
+
+    public char[] toArray(){
+        char[] res = new char[size()];
+        int i = 0;
+        for(int symbol = next(0); symbol >= 0; symbol = next(symbol + 1)){
+            res[i++] = (char)symbol;
+        }
+        return res;
+    }
+}
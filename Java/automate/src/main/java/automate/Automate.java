@@ -1,36 +1,140 @@
 package automate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
-public class Automate {
+public class Automate implements AutoCloseable {
 
     public static char Epsilon = '\0';
 
-    private Set<Character> alphabet;
-    private Set<Integer> states;
-    private Set<Integer> initialStates;
-    private Set<Integer> finalStates;
-    private Map<Integer, Map<Character, Set<Integer>>> transitions;
+    static final int FORMAT_MAGIC = 0x4155544D;
+    static final int FORMAT_VERSION = 1;
+
+    public enum Storage {
+        HEAP,
+        OFF_HEAP
+    }
+
+    private Alphabet alphabet;
+    private StateIndex states;
+    private StateSet initialStates;
+    private StateSet finalStates;
+    private TransitionTable transitions;
+    private TransitionTable predecessors;
+    private RangeTable ranges;
+    private RangeTable rangePredecessors;
+    private CompactTransitions compact;
+    private SymbolClasses classes;
+    private CompactTransitions classTransitions;
+    private EpsilonClosure closure;
+    private DfaTable dfa;
+    private BitParallel parallel;
+    private HybridMatcher hybrid;
+    private StreamMatcher stream;
+    private SubstringSearch search;
+    private boolean dfaChecked;
 
     public Automate() {
-        alphabet = new HashSet<>();
-        states = new HashSet<>();
-        initialStates = new HashSet<>();
-        finalStates = new HashSet<>();
-        transitions = new HashMap<>();
+        this(Storage.HEAP);
+    }
+
+    public Automate(Storage storage) {
+        alphabet = new Alphabet();
+        states = new StateIndex(storage == Storage.OFF_HEAP);
+        initialStates = new StateSet();
+        finalStates = new StateSet();
+        transitions = new TransitionTable(storage == Storage.OFF_HEAP);
+        ranges = new RangeTable();
+    }
+
+    Automate(Alphabet alphabet, StateIndex states, StateSet initialStates, StateSet finalStates, TransitionTable transitions, CompactTransitions compact) {
+        this.alphabet = alphabet;
+        this.states = states;
+        this.initialStates = initialStates;
+        this.finalStates = finalStates;
+        this.transitions = transitions;
+        this.compact = compact;
+        ranges = new RangeTable();
+        ranges.ensureRows(states.capacity());
+    }
+
+    public Storage getStorage(){
+        return transitions.isOffHeap() ? Storage.OFF_HEAP : Storage.HEAP;
+    }
+
+    public void setPredecessorIndex(boolean enabled){
+        if(!enabled){
+            if(predecessors != null){
+                predecessors.close();
+                predecessors = null;
+                rangePredecessors = null;
+            }
+            return;
+        }
+        if(predecessors != null){
+            return;
+        }
+        rangePredecessors = new RangeTable();
+        rangePredecessors.ensureRows(ranges.rows());
+        for(int from = 0; from < ranges.rows(); ++from){
+            for(int i = 0; i < ranges.count(from); ++i){
+                rangePredecessors.add(ranges.target(from, i), ranges.low(from, i), ranges.high(from, i), from);
+            }
+        }
+        predecessors = new TransitionTable(transitions.isOffHeap());
+        predecessors.ensureRows(transitions.rows());
+        for(int from = 0; from < transitions.rows(); ++from){
+            for(int column = 0; column < transitions.width(); ++column){
+                for(int edge = transitions.head(from, column); edge != TransitionTable.NONE; edge = transitions.next(edge)){
+                    predecessors.add(transitions.target(edge), transitions.symbolAt(column), from);
+                }
+            }
+        }
+    }
+
+    public boolean hasPredecessorIndex(){
+        return predecessors != null;
+    }
+
+    @Override
+    public void close(){
+        invalidate();
+        states.close();
+        transitions.close();
+        if(predecessors != null){
+            predecessors.close();
+        }
     }
 
     public boolean isValid(){
-        return !alphabet.isEmpty() && !states.isEmpty();
+        return (!alphabet.isEmpty() || ranges.size() != 0) && states.size() != 0;
     }
 
     public boolean addSymbol(char symbol){
         if(!(Character.isDefined(symbol) && symbol >= 0x21 && symbol <= 0x7E) || symbol == Epsilon || alphabet.contains(symbol)){
             return false;
         }
+        invalidate();
         return alphabet.add(symbol);
     }
 
@@ -38,16 +142,18 @@ public class Automate {
         if(!hasSymbol(symbol)){
             return false;
         }
-        for(int state : states){
-            for(char alpha : alphabet){
-                if(transitions.get(state).keySet().contains(alpha)){
-                    transitions.remove(state);
-                }
-            }
+        transitions.clearColumn(symbol);
+        if(predecessors != null){
+            predecessors.clearColumn(symbol);
         }
+        invalidate();
         return alphabet.remove(symbol);
     }
 
+    public Alphabet getAlphabet(){
+        return alphabet;
+    }
+
     public boolean hasSymbol(char symbol){
         return alphabet.contains(symbol);
     }
@@ -57,32 +163,30 @@ public class Automate {
     }
 
     public boolean addState(int state){
-        return states.add(state);
+        if(states.add(state) < 0){
+            return false;
+        }
+        transitions.ensureRows(states.capacity());
+        ranges.ensureRows(states.capacity());
+        if(predecessors != null){
+            predecessors.ensureRows(states.capacity());
+            rangePredecessors.ensureRows(states.capacity());
+        }
+        invalidate();
+        return true;
     }
 
     public boolean removeState(int state){
         if(!hasState(state)){
             return false;
         }
-        if(initialStates.contains(state)){
-            initialStates.remove(state);
-        }
-        if(finalStates.contains(state)){
-            finalStates.remove(state);
-        }
-        for(int from : states){
-            if(transitions.keySet().contains(from)){
-                transitions.remove(state);
-            }
-            for(char alpha : alphabet){
-                for(int to : states){
-                    if(transitions.get(from).get(alpha).contains(to)){
-                        removeTransition(from, alpha, to);
-                    }
-                }
-            }
-        }
-        return states.remove(state);
+        int index = states.indexOf(state);
+        initialStates.remove(index);
+        finalStates.remove(index);
+        detach(index);
+        states.remove(state);
+        invalidate();
+        return true;
     }
 
     public boolean hasState(int state){
@@ -94,80 +198,424 @@ public class Automate {
     }
 
     public void setStateInitial(int state){
+        if(hasState(state)){
+            initialStates.add(states.indexOf(state));
+            dfaChecked = false;
+            search = null;
+        }
     }
 
     public boolean isStateInitial(int state){
-        return initialStates.contains(state);
+        return initialStates.contains(states.indexOf(state));
     }
 
     public void setStateFinal(int state){
+        if(hasState(state)){
+            finalStates.add(states.indexOf(state));
+            dfaChecked = false;
+            search = null;
+        }
     }
 
     public boolean isStateFinal(int state){
-        return finalStates.contains(state);
+        return finalStates.contains(states.indexOf(state));
     }
 
     public boolean addTransition(int from, char symbol, int to){
-        if(!hasTransition(from, symbol, to)){
+        if(!isTransitionValid(from, symbol, to)){
             return false;
         }
-        Map<Character, Set<Integer>> fromTransitions = transitions.get(from);
-        if(fromTransitions == null){
-            fromTransitions = new HashMap<>();
-            Set<Integer> symbolTransitions = new HashSet<>();
-            fromTransitions.put(symbol, symbolTransitions);
-            transitions.put(from, fromTransitions);
+        if(!transitions.add(states.indexOf(from), symbol, states.indexOf(to))){
+            return false;
+        }
+        if(predecessors != null){
+            predecessors.add(states.indexOf(to), symbol, states.indexOf(from));
         }
+        invalidate();
         return true;
     }
 
     public boolean removeTransition(int from, char symbol, int to){
-        return false;
+        if(!isTransitionValid(from, symbol, to)){
+            return false;
+        }
+        if(!transitions.remove(states.indexOf(from), symbol, states.indexOf(to))){
+            return false;
+        }
+        if(predecessors != null){
+            predecessors.remove(states.indexOf(to), symbol, states.indexOf(from));
+        }
+        invalidate();
+        return true;
     }
 
     public boolean hasTransition(int from, char symbol, int to){
-        return false;
+        if(!isTransitionValid(from, symbol, to)){
+            return false;
+        }
+        return transitions.contains(states.indexOf(from), symbol, states.indexOf(to));
+    }
+
+    public boolean addTransition(int from, char low, char high, int to){
+        if(!isRangeValid(from, low, high, to)){
+            return false;
+        }
+        if(!ranges.add(states.indexOf(from), low, high, states.indexOf(to))){
+            return false;
+        }
+        if(rangePredecessors != null){
+            rangePredecessors.add(states.indexOf(to), low, high, states.indexOf(from));
+        }
+        invalidate();
+        return true;
+    }
+
+    public boolean removeTransition(int from, char low, char high, int to){
+        if(!isRangeValid(from, low, high, to)){
+            return false;
+        }
+        if(!ranges.remove(states.indexOf(from), low, high, states.indexOf(to))){
+            return false;
+        }
+        if(rangePredecessors != null){
+            rangePredecessors.remove(states.indexOf(to), low, high, states.indexOf(from));
+        }
+        invalidate();
+        return true;
+    }
+
+    public boolean hasTransition(int from, char low, char high, int to){
+        if(!isRangeValid(from, low, high, to)){
+            return false;
+        }
+        return ranges.contains(states.indexOf(from), low, high, states.indexOf(to));
     }
 
     public long countTransitions(){
-        return 0;
+        return transitions.size() + ranges.size();
     }
 
     public void prettyPrint(){
+        try{
+            prettyPrint(System.out);
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void prettyPrint(Path path) throws IOException{
+        try(Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+            prettyPrint(out);
+        }
+    }
+
+    public void prettyPrint(Appendable out) throws IOException{
+        long[] order = sortedStates();
+        char[] symbols = alphabet.toArray();
+        out.append("Alphabet\n\t");
+        for(char symbol : symbols){
+            out.append(symbol).append(' ');
+        }
+        out.append("\nInitial states\n\t");
+        for(long state : order){
+            if(initialStates.contains((int)state)){
+                out.append(Long.toString(state >>> 32)).append(' ');
+            }
+        }
+        out.append("\nFinal states\n\t");
+        for(long state : order){
+            if(finalStates.contains((int)state)){
+                out.append(Long.toString(state >>> 32)).append(' ');
+            }
+        }
+        out.append("\nTransitions:\n");
+        int[] targets = new int[16];
+        for(long state : order){
+            int from = (int)state;
+            out.append("\tFor state ").append(Long.toString(state >>> 32)).append(":\n");
+            for(int i = 0; i <= symbols.length; ++i){
+                char symbol = i < symbols.length ? symbols[i] : Epsilon;
+                int column = transitions.column(symbol);
+                int count = 0;
+                for(int edge = column == TransitionTable.NONE ? TransitionTable.NONE : transitions.head(from, column); edge != TransitionTable.NONE; edge = transitions.next(edge)){
+                    if(count == targets.length){
+                        targets = Arrays.copyOf(targets, count * 2);
+                    }
+                    targets[count++] = states.idOf(transitions.target(edge));
+                }
+                if(symbol == Epsilon){
+                    if(count == 0){
+                        continue;
+                    }
+                    out.append("\t\tFor epsilon: ");
+                }else{
+                    out.append("\t\tFor letter ").append(symbol).append(": ");
+                }
+                appendTargets(out, targets, count);
+            }
+            for(int i = 0; i < ranges.count(from); ){
+                char low = ranges.low(from, i);
+                char high = ranges.high(from, i);
+                int count = 0;
+                for(; i < ranges.count(from) && ranges.low(from, i) == low && ranges.high(from, i) == high; ++i){
+                    if(count == targets.length){
+                        targets = Arrays.copyOf(targets, count * 2);
+                    }
+                    targets[count++] = states.idOf(ranges.target(from, i));
+                }
+                out.append(String.format("\t\tFor range %04X-%04X: ", (int)low, (int)high));
+                appendTargets(out, targets, count);
+            }
+        }
     }
 
     public boolean hasEpsilonTransition(){
-        return false;
+        return transitions.columnSize(Epsilon) != 0;
     }
 
     public boolean isDeterministic(){
-        return false;
+        if(initialStates.size() != 1 || hasEpsilonTransition()){
+            return false;
+        }
+        for(int from = 0; from < transitions.rows(); ++from){
+            boolean ranged = ranges.count(from) != 0;
+            if(ranged && ranges.overlaps(from)){
+                return false;
+            }
+            for(int column = 0; column < transitions.width(); ++column){
+                int edge = transitions.head(from, column);
+                if(edge == TransitionTable.NONE){
+                    continue;
+                }
+                if(transitions.next(edge) != TransitionTable.NONE || (ranged && ranges.covers(from, transitions.symbolAt(column)))){
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     public boolean isComplete(){
-        return false;
+        if(states.size() == 0){
+            return true;
+        }
+        int[] columns = new int[alphabet.size()];
+        for(int symbol = alphabet.next(0), i = 0; symbol >= 0; symbol = alphabet.next(symbol + 1), ++i){
+            columns[i] = transitions.column((char)symbol);
+            if(columns[i] == TransitionTable.NONE){
+                return false;
+            }
+        }
+        for(int from = 0; from < states.capacity(); ++from){
+            if(!states.isLive(from)){
+                continue;
+            }
+            for(int column : columns){
+                if(transitions.head(from, column) == TransitionTable.NONE){
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     public Set<Integer> makeTransition(Set<Integer> origin, char alpha){
-        return null;
+        StateSet res = createStateSet();
+        makeTransition(createStateSet(origin), alpha, res);
+        return toStates(res);
+    }
+
+    public void makeTransition(StateSet origin, char alpha, StateSet res){
+        if(origin == res){
+            origin = createStateSet();
+            origin.copyFrom(res);
+        }
+        res.clear();
+        int symbolClass = symbolClasses().classOf(alpha);
+        if(symbolClass <= SymbolClasses.EPSILON){
+            return;
+        }
+        classTransitions().step(origin, (char)symbolClass, res);
+        epsilonClosure().close(res);
     }
 
     public Set<Integer> readString(String word){
-        return null;
+        return toStates(readStateSet(word));
+    }
+
+    public void readString(String word, StateSet res){
+        if(dfaTable() == null){
+            if(parallel != null){
+                parallel.read(word, res);
+            }else{
+                hybrid.read(word, res);
+            }
+            return;
+        }
+        classTransitions().read(symbolClasses(), epsilonClosure(), initialStates, word, res);
     }
 
     public boolean match(String word){
-        return false;
+        DfaTable table = dfaTable();
+        if(table != null){
+            return table.match(word);
+        }
+        if(parallel != null){
+            return parallel.match(word);
+        }
+        return hybrid.match(word);
+    }
+
+    public boolean match(Reader in) throws IOException{
+        dfaTable();
+        return stream.match(in);
+    }
+
+    public boolean match(InputStream in) throws IOException{
+        return match(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()));
+    }
+
+    public boolean match(ReadableByteChannel in) throws IOException{
+        return match(Channels.newReader(in, StandardCharsets.UTF_8.newDecoder(), StreamMatcher.BUFFER_CHARS));
+    }
+
+    public Span find(CharSequence text){
+        return find(text, 0);
+    }
+
+    public Span find(CharSequence text, int from){
+        if(from < 0 || from > text.length()){
+            throw new IndexOutOfBoundsException("No position " + from + " in text of length " + text.length());
+        }
+        return substringSearch().find(text, from);
+    }
+
+    public List<Span> findAll(CharSequence text){
+        return substringSearch().findAll(text);
+    }
+
+    public StateSet createStateSet(){
+        return new StateSet(states.capacity());
+    }
+
+    public StateSet createStateSet(Set<Integer> origin){
+        StateSet res = createStateSet();
+        for(int state : origin){
+            int index = states.indexOf(state);
+            if(index >= 0){
+                res.add(index);
+            }
+        }
+        return res;
+    }
+
+    public Set<Integer> toStates(StateSet set){
+        Set<Integer> res = new HashSet<>();
+        for(int index = set.next(0); index >= 0; index = set.next(index + 1)){
+            if(states.isLive(index)){
+                res.add(states.idOf(index));
+            }
+        }
+        return res;
+    }
+
+    public boolean hasFinalState(StateSet set){
+        return set.intersects(finalStates);
     }
 
     public void removeNonAccessibleStates(){
+        CompactTransitions compact = classTransitions();
+        boolean[] keep = new boolean[compact.rows()];
+        int[] stack = new int[compact.rows()];
+        int top = 0;
+        for(int index = initialStates.next(0); index >= 0; index = initialStates.next(index + 1)){
+            keep[index] = true;
+            stack[top++] = index;
+        }
+        reach(compact, keep, stack, top);
+        removeStates(keep, null);
     }
 
     public void removeNonCoAccessibleStates(){
+        int rows = transitions.rows();
+        boolean[] keep = new boolean[rows];
+        int[] stack = new int[rows];
+        int top = 0;
+        for(int index = finalStates.next(0); index >= 0; index = finalStates.next(index + 1)){
+            keep[index] = true;
+            stack[top++] = index;
+        }
+        if(predecessors != null && ranges.size() == 0){
+            reach(predecessors, keep, stack, top);
+            removeStates(keep, null);
+            return;
+        }
+        CompactTransitions reverse = classTransitions().reverse();
+        reach(reverse, keep, stack, top);
+        removeStates(keep, reverse);
+    }
+
+    public Map<Integer, Integer> compactStates(boolean breadthFirst){
+        int[] renumber = renumbering(breadthFirst);
+        int count = states.size();
+        boolean offHeap = transitions.isOffHeap();
+        int[] order = new int[count];
+        for(int index = 0; index < renumber.length; ++index){
+            if(renumber[index] >= 0){
+                order[renumber[index]] = index;
+            }
+        }
+        Map<Integer, Integer> res = new HashMap<>();
+        StateIndex newStates = new StateIndex(offHeap);
+        TransitionTable newTransitions = new TransitionTable(offHeap);
+        TransitionTable newPredecessors = predecessors == null ? null : new TransitionTable(offHeap);
+        RangeTable newRanges = new RangeTable();
+        RangeTable newRangePredecessors = predecessors == null ? null : new RangeTable();
+        newTransitions.ensureRows(count);
+        newRanges.ensureRows(count);
+        if(newPredecessors != null){
+            newPredecessors.ensureRows(count);
+            newRangePredecessors.ensureRows(count);
+        }
+        for(int from = 0; from < count; ++from){
+            newStates.add(from);
+            res.put(states.idOf(order[from]), from);
+            for(int column = 0; column < transitions.width(); ++column){
+                char symbol = transitions.symbolAt(column);
+                for(int edge = transitions.head(order[from], column); edge != TransitionTable.NONE; edge = transitions.next(edge)){
+                    int to = renumber[transitions.target(edge)];
+                    newTransitions.add(from, symbol, to);
+                    if(newPredecessors != null){
+                        newPredecessors.add(to, symbol, from);
+                    }
+                }
+            }
+            for(int i = 0; i < ranges.count(order[from]); ++i){
+                int to = renumber[ranges.target(order[from], i)];
+                newRanges.add(from, ranges.low(order[from], i), ranges.high(order[from], i), to);
+                if(newRangePredecessors != null){
+                    newRangePredecessors.add(to, ranges.low(order[from], i), ranges.high(order[from], i), from);
+                }
+            }
+        }
+        initialStates = remap(initialStates, renumber, count);
+        finalStates = remap(finalStates, renumber, count);
+        states.close();
+        transitions.close();
+        if(predecessors != null){
+            predecessors.close();
+        }
+        states = newStates;
+        transitions = newTransitions;
+        predecessors = newPredecessors;
+        ranges = newRanges;
+        rangePredecessors = newRangePredecessors;
+        invalidate();
+        return res;
     }
 
     public boolean isLanguageEmpty(){
-        return false;
+        return freeze().isLanguageEmpty();
     }
 
     public boolean hasEmptyIntersectionWith(Automate other){
@@ -175,15 +623,226 @@ public class Automate {
     }
 
     public boolean isIncludedIn(Automate other){
-        return false;
+        return freeze().isIncludedIn(other.freeze());
+    }
+
+    public BitSet matchAll(List<? extends CharSequence> words){
+        return freeze().matchAll(words);
+    }
+
+    public BitSet matchAll(Iterator<? extends CharSequence> words){
+        return freeze().matchAll(words);
+    }
+
+    public BitSet matchAll(Stream<? extends CharSequence> words){
+        return freeze().matchAll(words);
+    }
+
+    public FrozenAutomate freeze(){
+        return new FrozenAutomate(states, symbolClasses(), classTransitions(), initialStates, finalStates);
+    }
+
+    public ByteAutomate compileUtf8(){
+        return ByteAutomate.of(freeze());
+    }
+
+    public void writeTo(OutputStream out) throws IOException{
+        BinaryOutput output = new BinaryOutput(out);
+        output.writeInt(FORMAT_MAGIC);
+        output.writeVarint(FORMAT_VERSION);
+        long low = 0;
+        long high = 0;
+        for(char symbol : alphabet.toArray()){
+            if(symbol < 64){
+                low |= 1L << symbol;
+            }else{
+                high |= 1L << (symbol - 64);
+            }
+        }
+        output.writeLong(low);
+        output.writeLong(high);
+        long[] order = sortedStates();
+        int count = order.length;
+        int[] rank = new int[states.capacity()];
+        output.writeVarint(count);
+        long previous = -1;
+        for(int i = 0; i < count; ++i){
+            int index = (int)order[i];
+            long id = order[i] >>> 32;
+            rank[index] = i;
+            int flags = (initialStates.contains(index) ? 1 : 0) | (finalStates.contains(index) ? 2 : 0);
+            output.writeVarint(((id - previous) << 2) | flags);
+            previous = id;
+        }
+        long[] row = new long[16];
+        for(int i = 0; i < count; ++i){
+            int from = (int)order[i];
+            int size = 0;
+            for(int column = 0; column < transitions.width(); ++column){
+                for(int edge = transitions.head(from, column); edge != TransitionTable.NONE; edge = transitions.next(edge)){
+                    if(size == row.length){
+                        row = Arrays.copyOf(row, size * 2);
+                    }
+                    row[size++] = ((long)transitions.symbolAt(column) << 32) | rank[transitions.target(edge)];
+                }
+            }
+            Arrays.sort(row, 0, size);
+            output.writeVarint(size);
+            long symbol = 0;
+            for(int edge = 0; edge < size; ++edge){
+                output.writeVarint((row[edge] >>> 32) - symbol);
+                output.writeSigned((int)row[edge] - i);
+                symbol = row[edge] >>> 32;
+            }
+            output.writeVarint(ranges.count(from));
+            for(int r = 0; r < ranges.count(from); ++r){
+                output.writeVarint(ranges.low(from, r));
+                output.writeVarint(ranges.high(from, r) - ranges.low(from, r));
+                output.writeSigned(rank[ranges.target(from, r)] - i);
+            }
+        }
+        output.flush();
+    }
+
+    public void writeTable(OutputStream out) throws IOException{
+        MappedAutomate.write(createDeterministic(this).freeze(), out);
+    }
+
+    public static Automate readPrettyPrint(Reader in) throws IOException{
+        return new PrettyPrintReader(in).read();
+    }
+
+    public static Automate readPrettyPrint(Path path) throws IOException{
+        try(Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)){
+            return readPrettyPrint(in);
+        }
+    }
+
+    public static Automate readFrom(InputStream in) throws IOException{
+        BinaryInput input = new BinaryInput(in);
+        if(input.readInt() != FORMAT_MAGIC){
+            throw new IOException("Not an automate stream");
+        }
+        long version = input.readVarint();
+        if(version != FORMAT_VERSION){
+            throw new IOException("Unsupported automate format version " + version);
+        }
+        AutomateBuilder builder = new AutomateBuilder();
+        for(int word = 0; word < 2; ++word){
+            long bits = input.readLong();
+            for(; bits != 0; bits &= bits - 1){
+                builder.addSymbols((char)(word * 64 + Long.numberOfTrailingZeros(bits)));
+            }
+        }
+        int count = (int)input.readVarint();
+        int[] ids = new int[count];
+        int[] initial = new int[count];
+        int initialCount = 0;
+        int[] finals = new int[count];
+        int finalCount = 0;
+        long id = -1;
+        for(int i = 0; i < count; ++i){
+            long value = input.readVarint();
+            id += value >>> 2;
+            ids[i] = (int)id;
+            if((value & 1) != 0){
+                initial[initialCount++] = ids[i];
+            }
+            if((value & 2) != 0){
+                finals[finalCount++] = ids[i];
+            }
+        }
+        builder.addStates(ids);
+        builder.setStatesInitial(Arrays.copyOf(initial, initialCount));
+        builder.setStatesFinal(Arrays.copyOf(finals, finalCount));
+        int[] froms = new int[4096];
+        char[] symbols = new char[froms.length];
+        int[] tos = new int[froms.length];
+        int size = 0;
+        for(int i = 0; i < count; ++i){
+            long edges = input.readVarint();
+            char symbol = 0;
+            for(long edge = 0; edge < edges; ++edge){
+                symbol += (char)input.readVarint();
+                if(size == froms.length){
+                    builder.addTransitions(froms, symbols, tos);
+                    size = 0;
+                }
+                froms[size] = ids[i];
+                symbols[size] = symbol;
+                tos[size++] = ids[(int)(i + input.readSigned())];
+            }
+            long rangesInRow = input.readVarint();
+            for(long r = 0; r < rangesInRow; ++r){
+                char low = (char)input.readVarint();
+                char high = (char)(low + input.readVarint());
+                builder.addTransition(ids[i], low, high, ids[(int)(i + input.readSigned())]);
+            }
+        }
+        builder.addTransitions(Arrays.copyOf(froms, size), Arrays.copyOf(symbols, size), Arrays.copyOf(tos, size));
+        return builder.build();
     }
 
     public static Automate createMirror(Automate a){
-        return null;
+        Automate res = new Automate();
+        res.alphabet.copyFrom(a.alphabet);
+        StateIndex states = a.states;
+        for(int index = 0; index < states.capacity(); ++index){
+            if(!states.isLive(index)){
+                continue;
+            }
+            res.addState(states.idOf(index));
+            if(a.finalStates.contains(index)){
+                res.setStateInitial(states.idOf(index));
+            }
+            if(a.initialStates.contains(index)){
+                res.setStateFinal(states.idOf(index));
+            }
+        }
+        TransitionTable transitions = a.transitions;
+        for(int from = 0; from < transitions.rows(); ++from){
+            if(!states.isLive(from)){
+                continue;
+            }
+            for(int column = 0; column < transitions.width(); ++column){
+                for(int edge = transitions.head(from, column); edge != TransitionTable.NONE; edge = transitions.next(edge)){
+                    res.addTransition(states.idOf(transitions.target(edge)), transitions.symbolAt(column), states.idOf(from));
+                }
+            }
+            for(int i = 0; i < a.ranges.count(from); ++i){
+                res.addTransition(states.idOf(a.ranges.target(from, i)), a.ranges.low(from, i), a.ranges.high(from, i), states.idOf(from));
+            }
+        }
+        return res;
     }
 
     public static Automate createComplete(Automate a){
-        return null;
+        Automate res = copy(a);
+        if(res.isComplete()){
+            return res;
+        }
+        int sink = 0;
+        while(res.hasState(sink)){
+            ++sink;
+        }
+        res.addState(sink);
+        int[] columns = new int[res.alphabet.size()];
+        char[] symbols = res.alphabet.toArray();
+        for(int i = 0; i < symbols.length; ++i){
+            res.addTransition(sink, symbols[i], sink);
+            columns[i] = res.transitions.column(symbols[i]);
+        }
+        for(int from = 0; from < res.states.capacity(); ++from){
+            if(!res.states.isLive(from)){
+                continue;
+            }
+            for(int i = 0; i < symbols.length; ++i){
+                if(res.transitions.head(from, columns[i]) == TransitionTable.NONE){
+                    res.addTransition(res.states.idOf(from), symbols[i], sink);
+                }
+            }
+        }
+        return res;
     }
 
     public static Automate createComplement(Automate a){
@@ -191,21 +850,524 @@ public class Automate {
     }
 
     public static Automate createIntersection(Automate lhs, Automate rhs){
-        return null;
+        FrozenAutomate left = lhs.freeze();
+        FrozenAutomate right = rhs.freeze();
+        SymbolClasses lc = left.classes();
+        SymbolClasses rc = right.classes();
+        int width = rc.count() + 1;
+        long[] pieces = new long[16];
+        int pieceCount = 0;
+        for(int symbol = 1; symbol <= 0xFFFF; ){
+            int end = Math.min(lc.intervalEnd((char)symbol), rc.intervalEnd((char)symbol));
+            int leftClass = lc.classOf((char)symbol);
+            int rightClass = rc.classOf((char)symbol);
+            if(leftClass > SymbolClasses.EPSILON && rightClass > SymbolClasses.EPSILON){
+                if(pieceCount == pieces.length){
+                    pieces = Arrays.copyOf(pieces, pieceCount * 2);
+                }
+                pieces[pieceCount++] = ((long)(leftClass * width + rightClass) << 32) | ((long)symbol << 16) | end;
+            }
+            symbol = end + 1;
+        }
+        Automate res = new Automate();
+        res.alphabet.copyFrom(lhs.alphabet);
+        res.alphabet.retain(rhs.alphabet);
+        if(pieceCount == 0){
+            res.alphabet.copyFrom(lhs.alphabet);
+            res.addState(0);
+            res.setStateInitial(0);
+            for(int symbol = lhs.alphabet.next(0); symbol >= 0; symbol = lhs.alphabet.next(symbol + 1)){
+                res.addTransition(0, (char)symbol, 0);
+            }
+            return res;
+        }
+        Arrays.sort(pieces, 0, pieceCount);
+        Map<Long, Integer> ids = new HashMap<>();
+        List<Long> pairs = new ArrayList<>();
+        StateSet leftInitial = left.initialStates();
+        StateSet rightInitial = right.initialStates();
+        for(int p = leftInitial.next(0); p >= 0; p = leftInitial.next(p + 1)){
+            for(int q = rightInitial.next(0); q >= 0; q = rightInitial.next(q + 1)){
+                res.setStateInitial(res.productState(ids, pairs, left, right, p, q));
+            }
+        }
+        if(pairs.isEmpty()){
+            res.addState(0);
+            res.setStateInitial(0);
+        }
+        CompactTransitions lt = left.transitions();
+        CompactTransitions rt = right.transitions();
+        for(int from = 0; from < pairs.size(); ++from){
+            int p = (int)(pairs.get(from) >>> 32);
+            int q = (int)(long)pairs.get(from);
+            for(int edge = lt.begin(p); edge < lt.end(p) && lt.symbol(edge) == SymbolClasses.EPSILON; ++edge){
+                res.addTransition(from, Epsilon, res.productState(ids, pairs, left, right, lt.target(edge), q));
+            }
+            for(int edge = rt.begin(q); edge < rt.end(q) && rt.symbol(edge) == SymbolClasses.EPSILON; ++edge){
+                res.addTransition(from, Epsilon, res.productState(ids, pairs, left, right, p, rt.target(edge)));
+            }
+            for(int piece = 0; piece < pieceCount; ){
+                int key = (int)(pieces[piece] >>> 32);
+                int pieceEnd = piece;
+                while(pieceEnd < pieceCount && (int)(pieces[pieceEnd] >>> 32) == key){
+                    ++pieceEnd;
+                }
+                char leftClass = (char)(key / width);
+                char rightClass = (char)(key % width);
+                for(int le = lt.lowerBound(p, leftClass); le < lt.end(p) && lt.symbol(le) == leftClass; ++le){
+                    for(int re = rt.lowerBound(q, rightClass); re < rt.end(q) && rt.symbol(re) == rightClass; ++re){
+                        int to = res.productState(ids, pairs, left, right, lt.target(le), rt.target(re));
+                        for(int i = piece; i < pieceEnd; ++i){
+                            res.addLabel(from, (char)(pieces[i] >>> 16), (char)pieces[i], to);
+                        }
+                    }
+                }
+                piece = pieceEnd;
+            }
+        }
+        return res;
     }
 
     public static Automate createDeterministic(Automate other){
-        return null;
+        FrozenAutomate frozen = other.freeze();
+        CompactTransitions graph = frozen.transitions();
+        SymbolClasses classes = frozen.classes();
+        Automate res = new Automate();
+        res.alphabet.copyFrom(other.alphabet);
+        StateSetPool pool = new StateSetPool(graph.rows());
+        StateSet current = frozen.createStateSet();
+        StateSet next = frozen.createStateSet();
+        EpsilonClosure closure = frozen.closure();
+        next.copyFrom(frozen.initialStates());
+        closure.close(next);
+        pool.intern(next);
+        res.addState(0);
+        res.setStateInitial(0);
+        if(frozen.hasFinalState(next)){
+            res.setStateFinal(0);
+        }
+        for(int from = 0; from < pool.size(); ++from){
+            pool.load(from, current);
+            for(int symbolClass = 1; symbolClass <= classes.count(); ++symbolClass){
+                next.clear();
+                graph.step(current, (char)symbolClass, next);
+                if(next.isEmpty()){
+                    continue;
+                }
+                closure.close(next);
+                int count = pool.size();
+                int to = pool.intern(next);
+                if(to == count){
+                    res.addState(to);
+                    if(frozen.hasFinalState(next)){
+                        res.setStateFinal(to);
+                    }
+                }
+                res.addClass(from, classes, symbolClass, to);
+            }
+        }
+        return res;
     }
 
     public static Automate createMinimalMoore(Automate other){
-        return null;
+        FrozenAutomate dfa = createDeterministic(other).freeze();
+        CompactTransitions graph = dfa.transitions();
+        SymbolClasses classes = dfa.classes();
+        int sink = graph.rows();
+        int count = sink;
+        int width = classes.count();
+        int[] next = new int[(sink + 1) * width];
+        for(int from = 0; from < sink; ++from){
+            for(int symbolClass = 1; symbolClass <= width; ++symbolClass){
+                int edge = graph.lowerBound(from, (char)symbolClass);
+                if(edge < graph.end(from) && graph.symbol(edge) == symbolClass){
+                    next[from * width + symbolClass - 1] = graph.target(edge);
+                }else{
+                    next[from * width + symbolClass - 1] = sink;
+                    count = sink + 1;
+                }
+            }
+        }
+        Arrays.fill(next, sink * width, next.length, sink);
+        int[] block = new int[count];
+        int blocks = 0;
+        for(int state = 0; state < count; ++state){
+            block[state] = dfa.finalStates().contains(state) ? 1 : 0;
+        }
+        int[] refined = new int[count];
+        Map<Long, Integer> signatures = new HashMap<>();
+        for(int previous = -1; previous != blocks; ){
+            previous = blocks;
+            for(int symbolClass = 0; symbolClass < width; ++symbolClass){
+                signatures.clear();
+                for(int state = 0; state < count; ++state){
+                    long signature = ((long)block[state] << 32) | block[next[state * width + symbolClass]];
+                    Integer id = signatures.get(signature);
+                    if(id == null){
+                        id = signatures.size();
+                        signatures.put(signature, id);
+                    }
+                    refined[state] = id;
+                }
+                int[] swap = block;
+                block = refined;
+                refined = swap;
+            }
+            signatures.clear();
+            for(int state = 0; state < count; ++state){
+                Integer id = signatures.get((long)block[state]);
+                if(id == null){
+                    id = signatures.size();
+                    signatures.put((long)block[state], id);
+                }
+                block[state] = id;
+            }
+            blocks = signatures.size();
+        }
+        Automate res = new Automate();
+        res.alphabet.copyFrom(other.alphabet);
+        for(int state = 0; state < count; ++state){
+            if(res.addState(block[state]) && dfa.finalStates().contains(state)){
+                res.setStateFinal(block[state]);
+            }
+        }
+        boolean[] done = new boolean[blocks];
+        for(int state = 0; state < count; ++state){
+            if(done[block[state]]){
+                continue;
+            }
+            done[block[state]] = true;
+            for(int symbolClass = 1; symbolClass <= width; ++symbolClass){
+                res.addClass(block[state], classes, symbolClass, block[next[state * width + symbolClass - 1]]);
+            }
+        }
+        res.setStateInitial(block[0]);
+        return res;
     }
 
     public static Automate createMinimalBrzozowski(Automate other){
         return null;
     }
 
+    private void invalidate(){
+        compact = null;
+        classes = null;
+        classTransitions = null;
+        closure = null;
+        dfaChecked = false;
+        search = null;
+    }
 
+    private CompactTransitions compact(){
+        if(compact == null){
+            compact = CompactTransitions.of(transitions);
+        }
+        return compact;
+    }
+
+    SymbolClasses symbolClasses(){
+        if(classes == null){
+            classes = SymbolClasses.of(compact(), alphabet, ranges);
+        }
+        return classes;
+    }
+
+    private CompactTransitions classTransitions(){
+        if(classTransitions == null){
+            classTransitions = CompactTransitions.of(transitions, symbolClasses(), ranges);
+        }
+        return classTransitions;
+    }
+
+    private static Automate copy(Automate other){
+        Automate res = new Automate();
+        res.alphabet.copyFrom(other.alphabet);
+        StateIndex states = other.states;
+        for(int index = 0; index < states.capacity(); ++index){
+            if(!states.isLive(index)){
+                continue;
+            }
+            res.addState(states.idOf(index));
+            if(other.initialStates.contains(index)){
+                res.setStateInitial(states.idOf(index));
+            }
+            if(other.finalStates.contains(index)){
+                res.setStateFinal(states.idOf(index));
+            }
+        }
+        TransitionTable transitions = other.transitions;
+        for(int from = 0; from < transitions.rows(); ++from){
+            if(!states.isLive(from)){
+                continue;
+            }
+            for(int column = 0; column < transitions.width(); ++column){
+                for(int edge = transitions.head(from, column); edge != TransitionTable.NONE; edge = transitions.next(edge)){
+                    res.addTransition(states.idOf(from), transitions.symbolAt(column), states.idOf(transitions.target(edge)));
+                }
+            }
+            for(int i = 0; i < other.ranges.count(from); ++i){
+                res.addTransition(states.idOf(from), other.ranges.low(from, i), other.ranges.high(from, i), states.idOf(other.ranges.target(from, i)));
+            }
+        }
+        return res;
+    }
+
+    private int[] renumbering(boolean breadthFirst){
+        int[] renumber = new int[states.capacity()];
+        Arrays.fill(renumber, -1);
+        int next = 0;
+        if(breadthFirst){
+            CompactTransitions compact = classTransitions();
+            int[] queue = new int[states.size()];
+            int tail = 0;
+            for(int index = initialStates.next(0); index >= 0; index = initialStates.next(index + 1)){
+                renumber[index] = next++;
+                queue[tail++] = index;
+            }
+            for(int head = 0; head < tail; ++head){
+                int from = queue[head];
+                for(int edge = compact.begin(from); edge < compact.end(from); ++edge){
+                    int to = compact.target(edge);
+                    if(renumber[to] < 0){
+                        renumber[to] = next++;
+                        queue[tail++] = to;
+                    }
+                }
+            }
+        }
+        for(int index = 0; index < renumber.length; ++index){
+            if(renumber[index] < 0 && states.isLive(index)){
+                renumber[index] = next++;
+            }
+        }
+        return renumber;
+    }
+
+    private static StateSet remap(StateSet set, int[] renumber, int count){
+        StateSet res = new StateSet(count);
+        for(int index = set.next(0); index >= 0 && index < renumber.length; index = set.next(index + 1)){
+            if(renumber[index] >= 0){
+                res.add(renumber[index]);
+            }
+        }
+        return res;
+    }
+
+    private int productState(Map<Long, Integer> ids, List<Long> pairs, FrozenAutomate left, FrozenAutomate right, int p, int q){
+        long pair = ((long)p << 32) | q;
+        Integer id = ids.get(pair);
+        if(id != null){
+            return id;
+        }
+        id = pairs.size();
+        ids.put(pair, id);
+        pairs.add(pair);
+        addState(id);
+        if(left.finalStates().contains(p) && right.finalStates().contains(q)){
+            setStateFinal(id);
+        }
+        return id;
+    }
+
+    private void addClass(int from, SymbolClasses classes, int symbolClass, int to){
+        for(int segment = classes.segmentBegin(symbolClass); segment < classes.segmentEnd(symbolClass); ++segment){
+            addLabel(from, classes.segmentLow(segment), classes.segmentHigh(segment), to);
+        }
+    }
+
+    private void addLabel(int from, char low, char high, int to){
+        for(int symbol = low; symbol <= high; ){
+            if(alphabet.contains((char)symbol)){
+                addTransition(from, (char)symbol, to);
+                ++symbol;
+                continue;
+            }
+            int next = alphabet.next(symbol);
+            int end = next < 0 || next > high ? high : next - 1;
+            addTransition(from, (char)symbol, (char)end, to);
+            symbol = end + 1;
+        }
+    }
+
+    private long[] sortedStates(){
+        long[] order = new long[states.size()];
+        int count = 0;
+        for(int index = 0; index < states.capacity(); ++index){
+            if(states.isLive(index)){
+                order[count++] = ((long)states.idOf(index) << 32) | index;
+            }
+        }
+        Arrays.sort(order);
+        return order;
+    }
+
+    private static void appendTargets(Appendable out, int[] targets, int count) throws IOException{
+        Arrays.sort(targets, 0, count);
+        for(int i = 0; i < count; ++i){
+            out.append(Integer.toString(targets[i])).append(' ');
+        }
+        out.append('\n');
+    }
+
+    HybridMatcher hybridMatcher(){
+        dfaTable();
+        return hybrid;
+    }
+
+    private DfaTable dfaTable(){
+        if(!dfaChecked){
+            dfa = DfaTable.of(symbolClasses(), classTransitions(), initialStates, finalStates);
+            parallel = dfa == null && states.size() <= BitParallel.MAX_STATES ? BitParallel.of(symbolClasses(), classTransitions(), epsilonClosure(), initialStates, finalStates, renumbering(false), states.size()) : null;
+            hybrid = dfa == null && parallel == null ? new HybridMatcher(symbolClasses(), classTransitions(), epsilonClosure(), initialStates, finalStates, LazyDfa.DEFAULT_CACHE_BYTES) : null;
+            stream = new StreamMatcher(dfa, parallel, hybrid);
+            dfaChecked = true;
+        }
+        return dfa;
+    }
+
+    private SubstringSearch substringSearch(){
+        if(search == null){
+            Automate mirror = createMirror(this);
+            LazyDfa forward = new LazyDfa(symbolClasses(), classTransitions(), epsilonClosure(), initialStates, finalStates, LazyDfa.DEFAULT_CACHE_BYTES, true);
+            LazyDfa anchored = new LazyDfa(symbolClasses(), classTransitions(), epsilonClosure(), initialStates, finalStates, LazyDfa.DEFAULT_CACHE_BYTES);
+            LazyDfa reverse = new LazyDfa(mirror.symbolClasses(), mirror.classTransitions(), mirror.epsilonClosure(), mirror.initialStates, mirror.finalStates, LazyDfa.DEFAULT_CACHE_BYTES, true);
+            search = new SubstringSearch(forward, anchored, reverse, classTransitions().rows());
+        }
+        return search;
+    }
+
+    private EpsilonClosure epsilonClosure(){
+        if(closure == null){
+            closure = EpsilonClosure.of(classTransitions());
+        }
+        return closure;
+    }
+
+    private StateSet readStateSet(String word){
+        StateSet res = createStateSet();
+        readString(word, res);
+        return res;
+    }
+
+    private static void reach(CompactTransitions graph, boolean[] visited, int[] stack, int top){
+        while(top > 0){
+            int from = stack[--top];
+            for(int edge = graph.begin(from); edge < graph.end(from); ++edge){
+                int to = graph.target(edge);
+                if(!visited[to]){
+                    visited[to] = true;
+                    stack[top++] = to;
+                }
+            }
+        }
+    }
+
+    private static void reach(TransitionTable graph, boolean[] visited, int[] stack, int top){
+        while(top > 0){
+            int from = stack[--top];
+            for(int column = 0; column < graph.width(); ++column){
+                for(int edge = graph.head(from, column); edge != TransitionTable.NONE; edge = graph.next(edge)){
+                    int to = graph.target(edge);
+                    if(!visited[to]){
+                        visited[to] = true;
+                        stack[top++] = to;
+                    }
+                }
+            }
+        }
+    }
+
+    private void detach(int index){
+        detachRanges(index);
+        detachTransitions(index);
+    }
+
+    private void detachRanges(int index){
+        if(ranges.size() == 0){
+            return;
+        }
+        if(rangePredecessors == null){
+            ranges.clearRow(index);
+            ranges.removeTarget(index);
+            return;
+        }
+        for(int i = 0; i < rangePredecessors.count(index); ++i){
+            ranges.remove(rangePredecessors.target(index, i), rangePredecessors.low(index, i), rangePredecessors.high(index, i), index);
+        }
+        for(int i = 0; i < ranges.count(index); ++i){
+            rangePredecessors.remove(ranges.target(index, i), ranges.low(index, i), ranges.high(index, i), index);
+        }
+        ranges.clearRow(index);
+        rangePredecessors.clearRow(index);
+    }
+
+    private void detachTransitions(int index){
+        if(predecessors == null){
+            transitions.clearRow(index);
+            transitions.removeTarget(index);
+            return;
+        }
+        for(int column = 0; column < predecessors.width(); ++column){
+            char symbol = predecessors.symbolAt(column);
+            for(int edge = predecessors.head(index, column); edge != TransitionTable.NONE; edge = predecessors.next(edge)){
+                transitions.remove(predecessors.target(edge), symbol, index);
+            }
+        }
+        predecessors.clearRow(index);
+        for(int column = 0; column < transitions.width(); ++column){
+            char symbol = transitions.symbolAt(column);
+            for(int edge = transitions.head(index, column); edge != TransitionTable.NONE; edge = transitions.next(edge)){
+                predecessors.remove(transitions.target(edge), symbol, index);
+            }
+        }
+        transitions.clearRow(index);
+    }
+
+    private void removeStates(boolean[] keep, CompactTransitions reverse){
+        for(int index = 0; index < keep.length; ++index){
+            if(keep[index] || !states.isLive(index)){
+                continue;
+            }
+            if(predecessors != null){
+                initialStates.remove(index);
+                finalStates.remove(index);
+                detachTransitions(index);
+                ranges.clearRow(index);
+                rangePredecessors.clearRow(index);
+                states.remove(states.idOf(index));
+                continue;
+            }
+            if(reverse != null){
+                for(int edge = reverse.begin(index); edge < reverse.end(index); ++edge){
+                    int from = reverse.target(edge);
+                    if(keep[from]){
+                        transitions.removeEdges(from, index);
+                    }
+                }
+            }
+            initialStates.remove(index);
+            finalStates.remove(index);
+            transitions.clearRow(index);
+            ranges.clearRow(index);
+            states.remove(states.idOf(index));
+        }
+        ranges.retainTargets(keep);
+        if(rangePredecessors != null){
+            rangePredecessors.retainTargets(keep);
+        }
+        invalidate();
+        if(states.size() == 0){
+            addState(0);
+            setStateInitial(0);
+        }
+    }
+
+    private boolean isRangeValid(int from, char low, char high, int to){
+        return hasState(from) && hasState(to) && low != Epsilon && low <= high;
+    }
+
+    private boolean isTransitionValid(int from, char symbol, int to){
+        return hasState(from) && hasState(to) && (symbol == Epsilon || hasSymbol(symbol));
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package automate;
+
+import java.util.Arrays;
+
+public final class AutomateBuilder {
+
+    private final Automate.Storage storage;
+    private final Alphabet alphabet;
+    private int[] states;
+    private int stateCount;
+    private int[] initialStates;
+    private int initialCount;
+    private int[] finalStates;
+    private int finalCount;
+    private int[] froms;
+    private char[] symbols;
+    private int[] tos;
+    private int size;
+    private int[] ranges;
+    private int rangeCount;
+
+    public AutomateBuilder() {
+        this(Automate.Storage.HEAP);
+    }
+
+    public AutomateBuilder(Automate.Storage storage) {
+        this.storage = storage;
+        alphabet = new Alphabet();
+        states = new int[16];
+        initialStates = new int[4];
+        finalStates = new int[4];
+        froms = new int[16];
+        symbols = new char[16];
+        tos = new int[16];
+        ranges = new int[16];
+    }
+
+    public AutomateBuilder addSymbols(char... added){
+        for(char symbol : added){
+            if(Character.isDefined(symbol) && symbol >= 0x21 && symbol <= 0x7E && symbol != Automate.Epsilon){
+                alphabet.add(symbol);
+            }
+        }
+        return this;
+    }
+
+    public AutomateBuilder addStates(int... added){
+        states = append(states, stateCount, added);
+        stateCount += added.length;
+        return this;
+    }
+
+    public AutomateBuilder setStatesInitial(int... added){
+        initialStates = append(initialStates, initialCount, added);
+        initialCount += added.length;
+        return this;
+    }
+
+    public AutomateBuilder setStatesFinal(int... added){
+        finalStates = append(finalStates, finalCount, added);
+        finalCount += added.length;
+        return this;
+    }
+
+    public AutomateBuilder addTransition(int from, char symbol, int to){
+        reserve(size + 1);
+        froms[size] = from;
+        symbols[size] = symbol;
+        tos[size] = to;
+        ++size;
+        return this;
+    }
+
+    public AutomateBuilder addTransition(int from, char low, char high, int to){
+        if(rangeCount + 4 > ranges.length){
+            ranges = Arrays.copyOf(ranges, ranges.length * 2);
+        }
+        ranges[rangeCount++] = from;
+        ranges[rangeCount++] = low;
+        ranges[rangeCount++] = high;
+        ranges[rangeCount++] = to;
+        return this;
+    }
+
+    public AutomateBuilder addTransitions(int[] from, char[] symbol, int[] to){
+        if(from.length != symbol.length || from.length != to.length){
+            throw new IllegalArgumentException("Transition arrays must have the same length");
+        }
+        reserve(size + from.length);
+        System.arraycopy(from, 0, froms, size, from.length);
+        System.arraycopy(symbol, 0, symbols, size, from.length);
+        System.arraycopy(to, 0, tos, size, from.length);
+        size += from.length;
+        return this;
+    }
+
+    public Automate build(){
+        int[] ids = Arrays.copyOf(states, stateCount);
+        Arrays.sort(ids);
+        int count = 0;
+        for(int i = 0; i < ids.length; ++i){
+            if(ids[i] >= 0 && (count == 0 || ids[count - 1] != ids[i])){
+                ids[count++] = ids[i];
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        boolean offHeap = storage == Automate.Storage.OFF_HEAP;
+        StateIndex index = new StateIndex(offHeap);
+        for(int id : ids){
+            index.add(id);
+        }
+        StateSet initial = flags(index, initialStates, initialCount);
+        StateSet accepting = flags(index, finalStates, finalCount);
+        int[] offsets = new int[count + 1];
+        int[] sources = new int[size];
+        int[] targets = new int[size];
+        int valid = 0;
+        boolean epsilon = false;
+        for(int i = 0; i < size; ++i){
+            int from = index.indexOf(froms[i]);
+            int to = index.indexOf(tos[i]);
+            if(from < 0 || to < 0 || !(symbols[i] == Automate.Epsilon || alphabet.contains(symbols[i]))){
+                sources[i] = -1;
+                continue;
+            }
+            sources[i] = from;
+            epsilon |= symbols[i] == Automate.Epsilon;
+            targets[i] = to;
+            ++offsets[from + 1];
+            ++valid;
+        }
+        for(int from = 0; from < count; ++from){
+            offsets[from + 1] += offsets[from];
+        }
+        long[] edges = new long[valid];
+        int[] cursor = Arrays.copyOf(offsets, count);
+        for(int i = 0; i < size; ++i){
+            if(sources[i] >= 0){
+                edges[cursor[sources[i]]++] = ((long)symbols[i] << 32) | targets[i];
+            }
+        }
+        int[] compactOffsets = new int[count + 1];
+        char[] compactSymbols = new char[valid];
+        int[] compactTargets = new int[valid];
+        int edge = 0;
+        for(int from = 0; from < count; ++from){
+            Arrays.sort(edges, offsets[from], offsets[from + 1]);
+            for(int i = offsets[from]; i < offsets[from + 1]; ++i){
+                if(i > offsets[from] && edges[i] == edges[i - 1]){
+                    continue;
+                }
+                compactSymbols[edge] = (char)(edges[i] >>> 32);
+                compactTargets[edge] = (int)edges[i];
+                ++edge;
+            }
+            compactOffsets[from + 1] = edge;
+        }
+        CompactTransitions compact = new CompactTransitions(compactOffsets, Arrays.copyOf(compactSymbols, edge), Arrays.copyOf(compactTargets, edge));
+        TransitionTable table = new TransitionTable(offHeap);
+        for(int symbol = 0; symbol < 128; ++symbol){
+            if(alphabet.contains((char)symbol) || (symbol == Automate.Epsilon && epsilon)){
+                table.ensureColumn((char)symbol);
+            }
+        }
+        table.ensureRows(count);
+        for(int from = 0; from < count; ++from){
+            for(int e = compact.end(from) - 1; e >= compact.begin(from); --e){
+                table.append(from, compact.symbol(e), compact.target(e));
+            }
+        }
+        Alphabet symbolSet = new Alphabet();
+        symbolSet.copyFrom(alphabet);
+        Automate res = new Automate(symbolSet, index, initial, accepting, table, compact);
+        for(int i = 0; i < rangeCount; i += 4){
+            res.addTransition(ranges[i], (char)ranges[i + 1], (char)ranges[i + 2], ranges[i + 3]);
+        }
+        return res;
+    }
+
+    public FrozenAutomate freeze(){
+        return build().freeze();
+    }
+
+    private static StateSet flags(StateIndex index, int[] flagged, int count){
+        StateSet res = new StateSet(index.size());
+        for(int i = 0; i < count; ++i){
+            int state = index.indexOf(flagged[i]);
+            if(state >= 0){
+                res.add(state);
+            }
+        }
+        return res;
+    }
+
+    private static int[] append(int[] values, int count, int[] added){
+        if(count + added.length > values.length){
+            values = Arrays.copyOf(values, Math.max(count + added.length, values.length * 2));
+        }
+        System.arraycopy(added, 0, values, count, added.length);
+        return values;
+    }
+
+    private void reserve(int capacity){
+        if(capacity <= froms.length){
+            return;
+        }
+        int length = Math.max(capacity, froms.length * 2);
+        froms = Arrays.copyOf(froms, length);
+        symbols = Arrays.copyOf(symbols, length);
+        tos = Arrays.copyOf(tos, length);
+    }
+}
@@ -0,0 +1,149 @@
+package automate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+final class BatchMatcher {
+
+    static final int BATCH = 1 << 13;
+
+    private static final int MIN_GRAIN = 64;
+    private static final int SPLITS_PER_WORKER = 8;
+
+    private final SymbolClasses classes;
+    private final CompactTransitions transitions;
+    private final EpsilonClosure closure;
+    private final StateSet initialStates;
+    private final StateSet finalStates;
+    private final DfaTable dfa;
+    private final BitParallel parallel;
+    private final ConcurrentLinkedQueue<Engine> engines;
+
+    BatchMatcher(SymbolClasses classes, CompactTransitions transitions, EpsilonClosure closure, StateSet initialStates, StateSet finalStates, DfaTable dfa) {
+        this.classes = classes;
+        this.transitions = transitions;
+        this.closure = closure;
+        this.initialStates = initialStates;
+        this.finalStates = finalStates;
+        this.dfa = dfa;
+        parallel = dfa == null ? BitParallel.of(classes, transitions, closure, initialStates, finalStates) : null;
+        engines = new ConcurrentLinkedQueue<>();
+    }
+
+    public BitSet matchAll(List<? extends CharSequence> words, ForkJoinPool pool){
+        if(!(words instanceof RandomAccess)){
+            words = new ArrayList<>(words);
+        }
+        long[] bits = new long[(words.size() + 63) >>> 6];
+        if(!words.isEmpty()){
+            pool.invoke(new Task(words, bits, words.size(), grain(words.size(), pool)));
+        }
+        return BitSet.valueOf(bits);
+    }
+
+    public BitSet matchAll(Iterator<? extends CharSequence> words, ForkJoinPool pool){
+        List<ForkJoinTask<?>> pending = new ArrayList<>();
+        List<long[]> results = new ArrayList<>();
+        int joined = 0;
+        while(words.hasNext()){
+            List<CharSequence> batch = new ArrayList<>(BATCH);
+            while(batch.size() < BATCH && words.hasNext()){
+                batch.add(words.next());
+            }
+            long[] bits = new long[BATCH >>> 6];
+            results.add(bits);
+            pending.add(pool.submit(new Task(batch, bits, batch.size(), grain(batch.size(), pool))));
+            if(pending.size() - joined > 2 * pool.getParallelism()){
+                pending.get(joined++).join();
+            }
+        }
+        while(joined < pending.size()){
+            pending.get(joined++).join();
+        }
+        long[] res = new long[results.size() * (BATCH >>> 6)];
+        for(int i = 0; i < results.size(); ++i){
+            System.arraycopy(results.get(i), 0, res, i * (BATCH >>> 6), BATCH >>> 6);
+        }
+        return BitSet.valueOf(res);
+    }
+
+    private static int grain(int size, ForkJoinPool pool){
+        int grain = size / (SPLITS_PER_WORKER * pool.getParallelism());
+        return Math.max(MIN_GRAIN, (grain + 63) & -64);
+    }
+
+    private Engine acquire(){
+        Engine engine = engines.poll();
+        return engine != null ? engine : new Engine();
+    }
+
+    private final class Engine {
+
+        private final BitParallel parallel;
+        private final HybridMatcher hybrid;
+
+        Engine() {
+            parallel = BatchMatcher.this.parallel != null ? BatchMatcher.this.parallel.copy() : null;
+            hybrid = dfa == null && parallel == null ? new HybridMatcher(classes, transitions, closure, initialStates, finalStates, LazyDfa.DEFAULT_CACHE_BYTES) : null;
+        }
+
+        boolean match(CharSequence word){
+            if(dfa != null){
+                return dfa.match(word);
+            }
+            if(parallel != null){
+                return parallel.match(word);
+            }
+            return hybrid.match(word);
+        }
+    }
+
+    private final class Task extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends CharSequence> words;
+        private final long[] bits;
+        private final int begin;
+        private final int end;
+        private final int grain;
+
+        Task(List<? extends CharSequence> words, long[] bits, int size, int grain) {
+            this(words, bits, 0, size, grain);
+        }
+
+        private Task(List<? extends CharSequence> words, long[] bits, int begin, int end, int grain) {
+            this.words = words;
+            this.bits = bits;
+            this.begin = begin;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute(){
+            if(end - begin > grain){
+                int middle = begin + ((((end - begin) >>> 1) + 63) & -64);
+                invokeAll(new Task(words, bits, begin, middle, grain), new Task(words, bits, middle, end, grain));
+                return;
+            }
+            Engine engine = acquire();
+            try{
+                for(int i = begin; i < end; ++i){
+                    if(engine.match(words.get(i))){
+                        bits[i >>> 6] |= 1L << i;
+                    }
+                }
+            }finally{
+                engines.offer(engine);
+            }
+        }
+    }
+}
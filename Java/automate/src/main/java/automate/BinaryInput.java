@@ -0,0 +1,66 @@
+package automate;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+final class BinaryInput {
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    BinaryInput(InputStream in) {
+        this.in = in;
+        buffer = new byte[1 << 16];
+    }
+
+    public int readByte() throws IOException{
+        if(position == limit){
+            fill();
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readInt() throws IOException{
+        int res = 0;
+        for(int i = 0; i < 4; ++i){
+            res = (res << 8) | readByte();
+        }
+        return res;
+    }
+
+    public long readLong() throws IOException{
+        return ((long)readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    public long readVarint() throws IOException{
+        long res = 0;
+        for(int shift = 0; shift < 64; shift += 7){
+            int b = readByte();
+            res |= (long)(b & 0x7F) << shift;
+            if((b & 0x80) == 0){
+                return res;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public long readSigned() throws IOException{
+        long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void fill() throws IOException{
+        int read;
+        do{
+            read = in.read(buffer, 0, buffer.length);
+        }while(read == 0);
+        if(read < 0){
+            throw new EOFException("Unexpected end of automate stream");
+        }
+        position = 0;
+        limit = read;
+    }
+}
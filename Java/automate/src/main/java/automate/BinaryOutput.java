@@ -0,0 +1,59 @@
+package automate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+final class BinaryOutput {
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    BinaryOutput(OutputStream out) {
+        this.out = out;
+        buffer = new byte[1 << 16];
+    }
+
+    public void writeByte(int value) throws IOException{
+        if(position == buffer.length){
+            drain();
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    public void writeInt(int value) throws IOException{
+        for(int shift = 24; shift >= 0; shift -= 8){
+            writeByte(value >>> shift);
+        }
+    }
+
+    public void writeLong(long value) throws IOException{
+        writeInt((int)(value >>> 32));
+        writeInt((int)value);
+    }
+
+    public void writeVarint(long value) throws IOException{
+        if(buffer.length - position < 10){
+            drain();
+        }
+        while((value & ~0x7FL) != 0){
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+    }
+
+    public void writeSigned(long value) throws IOException{
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    public void flush() throws IOException{
+        drain();
+        out.flush();
+    }
+
+    private void drain() throws IOException{
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
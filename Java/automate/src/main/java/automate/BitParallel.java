@@ -0,0 +1,243 @@
+package automate;
+
+final class BitParallel {
+
+    static final int MAX_STATES = 128;
+
+    private static final int MAX_MASKS = 1 << 20;
+
+    private final SymbolClasses classes;
+    private final int[] rows;
+    private final int width;
+    private final int chunks;
+    private final long[] successors;
+    private final long[] in;
+    private final long[] followTable;
+    private final long[] closureTable;
+    private final long startLow;
+    private final long startHigh;
+    private final long finalLow;
+    private final long finalHigh;
+    private final long[] scratch;
+
+    private BitParallel(SymbolClasses classes, int[] rows, int width, int chunks, long[] successors, long[] in, long[] followTable, long[] closureTable, long[] start, long[] accepting) {
+        this.classes = classes;
+        this.rows = rows;
+        this.width = width;
+        this.chunks = chunks;
+        this.successors = successors;
+        this.in = in;
+        this.followTable = followTable;
+        this.closureTable = closureTable;
+        startLow = start[0];
+        startHigh = start[1];
+        finalLow = accepting[0];
+        finalHigh = accepting[1];
+        scratch = new long[2];
+    }
+
+    static BitParallel of(SymbolClasses classes, CompactTransitions transitions, EpsilonClosure closure, StateSet initialStates, StateSet finalStates){
+        int count = transitions.rows();
+        if(count > MAX_STATES){
+            return null;
+        }
+        int[] renumber = new int[count];
+        for(int row = 0; row < count; ++row){
+            renumber[row] = row;
+        }
+        return of(classes, transitions, closure, initialStates, finalStates, renumber, count);
+    }
+
+    static BitParallel of(SymbolClasses classes, CompactTransitions transitions, EpsilonClosure closure, StateSet initialStates, StateSet finalStates, int[] renumber, int count){
+        int width = classes.count();
+        if(count > MAX_STATES || 2L * count * width > MAX_MASKS){
+            return null;
+        }
+        int[] rows = new int[count];
+        for(int row = 0; row < renumber.length; ++row){
+            if(renumber[row] >= 0){
+                rows[renumber[row]] = row;
+            }
+        }
+        long[] successors = new long[2 * count * width];
+        long[] follow = new long[2 * count];
+        long[] in = new long[2 * width];
+        for(int from = 0; from < count; ++from){
+            for(int edge = transitions.begin(rows[from]); edge < transitions.end(rows[from]); ++edge){
+                int symbolClass = transitions.symbol(edge);
+                if(symbolClass == SymbolClasses.EPSILON){
+                    continue;
+                }
+                int to = renumber[transitions.target(edge)];
+                long bit = 1L << to;
+                successors[2 * (from * width + symbolClass - 1) + (to >>> 6)] |= bit;
+                follow[2 * from + (to >>> 6)] |= bit;
+                in[2 * (symbolClass - 1) + (to >>> 6)] |= bit;
+            }
+        }
+        boolean homogeneous = true;
+        for(int from = 0; from < count && homogeneous; ++from){
+            for(int i = 0; i < 2 * width; ++i){
+                if(successors[2 * from * width + i] != (follow[2 * from + (i & 1)] & in[i])){
+                    homogeneous = false;
+                    break;
+                }
+            }
+        }
+        int chunks = (count + 7) >>> 3;
+        long[] closureTable = null;
+        StateSet set = new StateSet(transitions.rows());
+        if(!closure.isTrivial()){
+            long[] closed = new long[2 * count];
+            for(int state = 0; state < count; ++state){
+                set.clear();
+                set.add(rows[state]);
+                closure.close(set);
+                mask(set, renumber, closed, 2 * state);
+            }
+            closureTable = table(closed, chunks);
+        }
+        long[] start = new long[2];
+        set.copyFrom(initialStates);
+        closure.close(set);
+        mask(set, renumber, start, 0);
+        long[] accepting = new long[2];
+        mask(finalStates, renumber, accepting, 0);
+        return new BitParallel(classes, rows, width, chunks, homogeneous ? null : successors, in, homogeneous ? table(follow, chunks) : null, closureTable, start, accepting);
+    }
+
+    BitParallel copy(){
+        return new BitParallel(classes, rows, width, chunks, successors, in, followTable, closureTable, new long[]{startLow, startHigh}, new long[]{finalLow, finalHigh});
+    }
+
+    public boolean match(CharSequence word){
+        return run(word, scratch) && isAccepting(scratch);
+    }
+
+    public void read(CharSequence word, StateSet res){
+        res.clear();
+        if(!run(word, scratch)){
+            return;
+        }
+        for(int word64 = 0; word64 < 2; ++word64){
+            for(long bits = scratch[word64]; bits != 0; bits &= bits - 1){
+                res.add(rows[(word64 << 6) + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+    }
+
+    void start(long[] state){
+        state[0] = startLow;
+        state[1] = startHigh;
+    }
+
+    boolean isAccepting(long[] state){
+        return (state[0] & finalLow) != 0 || (state[1] & finalHigh) != 0;
+    }
+
+    private boolean run(CharSequence word, long[] res){
+        start(res);
+        return step(res, word);
+    }
+
+    boolean step(long[] res, CharSequence word){
+        if(chunks <= 8 && followTable != null && closureTable == null){
+            return stepWord(res, word);
+        }
+        long low = res[0];
+        long high = res[1];
+        for(int i = 0; i < word.length(); ++i){
+            int symbolClass = classes.classOf(word.charAt(i));
+            if(symbolClass <= SymbolClasses.EPSILON){
+                return false;
+            }
+            long nextLow = 0;
+            long nextHigh = 0;
+            if(followTable != null){
+                for(int chunk = 0; chunk < chunks; ++chunk){
+                    int index = 2 * ((chunk << 8) | (int)((chunk < 8 ? low >>> (chunk << 3) : high >>> ((chunk - 8) << 3)) & 0xFF));
+                    nextLow |= followTable[index];
+                    nextHigh |= followTable[index + 1];
+                }
+                nextLow &= in[2 * (symbolClass - 1)];
+                nextHigh &= in[2 * (symbolClass - 1) + 1];
+            }else{
+                for(long bits = low; bits != 0; bits &= bits - 1){
+                    int index = 2 * (Long.numberOfTrailingZeros(bits) * width + symbolClass - 1);
+                    nextLow |= successors[index];
+                    nextHigh |= successors[index + 1];
+                }
+                for(long bits = high; bits != 0; bits &= bits - 1){
+                    int index = 2 * ((64 + Long.numberOfTrailingZeros(bits)) * width + symbolClass - 1);
+                    nextLow |= successors[index];
+                    nextHigh |= successors[index + 1];
+                }
+            }
+            if(closureTable != null){
+                long closedLow = 0;
+                long closedHigh = 0;
+                for(int chunk = 0; chunk < chunks; ++chunk){
+                    int index = 2 * ((chunk << 8) | (int)((chunk < 8 ? nextLow >>> (chunk << 3) : nextHigh >>> ((chunk - 8) << 3)) & 0xFF));
+                    closedLow |= closureTable[index];
+                    closedHigh |= closureTable[index + 1];
+                }
+                nextLow = closedLow;
+                nextHigh = closedHigh;
+            }
+            low = nextLow;
+            high = nextHigh;
+            if((low | high) == 0){
+                return false;
+            }
+        }
+        res[0] = low;
+        res[1] = high;
+        return true;
+    }
+
+    private boolean stepWord(long[] res, CharSequence word){
+        long state = res[0];
+        for(int i = 0; i < word.length(); ++i){
+            int symbolClass = classes.classOf(word.charAt(i));
+            if(symbolClass <= SymbolClasses.EPSILON){
+                return false;
+            }
+            long next = 0;
+            for(int chunk = 0; chunk < chunks; ++chunk){
+                next |= followTable[2 * ((chunk << 8) | (int)((state >>> (chunk << 3)) & 0xFF))];
+            }
+            state = next & in[2 * (symbolClass - 1)];
+            if(state == 0){
+                return false;
+            }
+        }
+        res[0] = state;
+        res[1] = 0;
+        return true;
+    }
+
+    private static void mask(StateSet set, int[] renumber, long[] res, int offset){
+        for(int index = set.next(0); index >= 0 && index < renumber.length; index = set.next(index + 1)){
+            int state = renumber[index];
+            if(state >= 0){
+                res[offset + (state >>> 6)] |= 1L << state;
+            }
+        }
+    }
+
+    private static long[] table(long[] masks, int chunks){
+        int rows = masks.length / 2;
+        long[] res = new long[2 * 256 * chunks];
+        for(int chunk = 0; chunk < chunks; ++chunk){
+            for(int b = 1; b < 256; ++b){
+                int low = b & -b;
+                int state = (chunk << 3) + Integer.numberOfTrailingZeros(b);
+                int index = 2 * ((chunk << 8) | b);
+                int rest = 2 * ((chunk << 8) | (b ^ low));
+                res[index] = res[rest] | (state < rows ? masks[2 * state] : 0);
+                res[index + 1] = res[rest + 1] | (state < rows ? masks[2 * state + 1] : 0);
+            }
+        }
+        return res;
+    }
+}
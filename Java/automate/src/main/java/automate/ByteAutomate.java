@@ -0,0 +1,304 @@
+package automate;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public final class ByteAutomate {
+
+    static final int DEAD = 0;
+    static final int START = 1;
+    private static final int[] LENGTH_LIMITS = {0x7F, 0x7FF, 0xFFFF};
+
+    private final byte[] byteClasses;
+    private final int width;
+    private final int[] table;
+    private final boolean[] accepting;
+
+    private ByteAutomate(byte[] byteClasses, int width, int[] table, boolean[] accepting) {
+        this.byteClasses = byteClasses;
+        this.width = width;
+        this.table = table;
+        this.accepting = accepting;
+    }
+
+    static ByteAutomate of(FrozenAutomate automate){
+        CompactTransitions graph = automate.transitions();
+        SymbolClasses classes = automate.classes();
+        EpsilonClosure closure = automate.closure();
+        int count = classes.count();
+        StateSetPool pool = new StateSetPool(graph.rows());
+        StateSet current = automate.createStateSet();
+        StateSet next = automate.createStateSet();
+        next.copyFrom(automate.initialStates());
+        closure.close(next);
+        pool.intern(next);
+        boolean[] finals = new boolean[16];
+        finals[0] = automate.hasFinalState(next);
+        int[] moves = new int[16 * Math.max(1, count)];
+        for(int from = 0; from < pool.size(); ++from){
+            pool.load(from, current);
+            if((from + 1) * count > moves.length){
+                moves = Arrays.copyOf(moves, Math.max(moves.length * 2, (from + 1) * count));
+            }
+            for(int symbolClass = 1; symbolClass <= count; ++symbolClass){
+                next.clear();
+                graph.step(current, (char)symbolClass, next);
+                if(next.isEmpty()){
+                    moves[from * count + symbolClass - 1] = -1;
+                    continue;
+                }
+                closure.close(next);
+                int size = pool.size();
+                int to = pool.intern(next);
+                if(to == size){
+                    if(to == finals.length){
+                        finals = Arrays.copyOf(finals, to * 2);
+                    }
+                    finals[to] = automate.hasFinalState(next);
+                }
+                moves[from * count + symbolClass - 1] = to;
+            }
+        }
+        Utf8Compiler compiler = new Utf8Compiler(pool.size());
+        for(int from = 0; from < pool.size(); ++from){
+            for(int symbolClass = 1; symbolClass <= count; ++symbolClass){
+                int to = moves[from * count + symbolClass - 1];
+                if(to < 0){
+                    continue;
+                }
+                for(int segment = classes.segmentBegin(symbolClass); segment < classes.segmentEnd(symbolClass); ++segment){
+                    int low = classes.segmentLow(segment);
+                    int high = classes.segmentHigh(segment);
+                    compiler.addRange(from, low, Math.min(high, Character.MIN_SURROGATE - 1), to);
+                    compiler.addRange(from, Math.max(low, Character.MAX_SURROGATE + 1), high, to);
+                    int leadLow = Math.max(low, Character.MIN_HIGH_SURROGATE);
+                    int leadHigh = Math.min(high, Character.MAX_HIGH_SURROGATE);
+                    if(leadLow <= leadHigh){
+                        addPairs(compiler, classes, moves, count, from, leadLow, leadHigh, to);
+                    }
+                }
+            }
+        }
+        return compiler.build(finals);
+    }
+
+    private static void addPairs(Utf8Compiler compiler, SymbolClasses classes, int[] moves, int count, int from, int leadLow, int leadHigh, int middle){
+        for(int symbolClass = 1; symbolClass <= count; ++symbolClass){
+            int to = moves[middle * count + symbolClass - 1];
+            if(to < 0){
+                continue;
+            }
+            for(int segment = classes.segmentBegin(symbolClass); segment < classes.segmentEnd(symbolClass); ++segment){
+                int low = Math.max(classes.segmentLow(segment), Character.MIN_LOW_SURROGATE);
+                int high = Math.min(classes.segmentHigh(segment), Character.MAX_LOW_SURROGATE);
+                if(low > high){
+                    continue;
+                }
+                if(low == Character.MIN_LOW_SURROGATE && high == Character.MAX_LOW_SURROGATE){
+                    compiler.addRange(from, Character.toCodePoint((char)leadLow, (char)low), Character.toCodePoint((char)leadHigh, (char)high), to);
+                    continue;
+                }
+                for(int lead = leadLow; lead <= leadHigh; ++lead){
+                    compiler.addRange(from, Character.toCodePoint((char)lead, (char)low), Character.toCodePoint((char)lead, (char)high), to);
+                }
+            }
+        }
+    }
+
+    public int countStates(){
+        return accepting.length - 1;
+    }
+
+    public int countByteClasses(){
+        return width;
+    }
+
+    public boolean match(byte[] input){
+        return match(input, 0, input.length);
+    }
+
+    public boolean match(byte[] input, int offset, int length){
+        int state = START;
+        for(int i = offset; i < offset + length; ++i){
+            state = table[state * width + (byteClasses[input[i] & 0xFF] & 0xFF)];
+            if(state == DEAD){
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+
+    public boolean match(ByteBuffer input){
+        if(input.hasArray()){
+            return match(input.array(), input.arrayOffset() + input.position(), input.remaining());
+        }
+        return isAccepting(step(START, input, input.position(), input.limit()));
+    }
+
+    public LineScanner lineScanner(){
+        return lineScanner(ForkJoinPool.commonPool());
+    }
+
+    public LineScanner lineScanner(ForkJoinPool pool){
+        return new LineScanner(this, pool, LineScanner.DEFAULT_WINDOW);
+    }
+
+    int step(int state, ByteBuffer input, int from, int to){
+        for(int i = from; i < to && state != DEAD; ++i){
+            state = table[state * width + (byteClasses[input.get(i) & 0xFF] & 0xFF)];
+        }
+        return state;
+    }
+
+    int step(int state, byte input){
+        return table[state * width + (byteClasses[input & 0xFF] & 0xFF)];
+    }
+
+    boolean isAccepting(int state){
+        return accepting[state];
+    }
+
+    private static final class Utf8Compiler {
+
+        private final Map<Long, Integer> children = new HashMap<>();
+        private final int[] stack = new int[64];
+        private final int[] lows = new int[4];
+        private final int[] highs = new int[4];
+        private int nodes;
+        private int[] edgeFrom = new int[16];
+        private int[] edgeTo = new int[16];
+        private int[] edgeBytes = new int[16];
+        private int edges;
+
+        Utf8Compiler(int states) {
+            nodes = states;
+        }
+
+        void addRange(int from, int low, int high, int to){
+            if(low > high){
+                return;
+            }
+            int top = 0;
+            stack[top++] = low;
+            stack[top++] = high;
+            split:
+            while(top > 0){
+                int end = stack[--top];
+                int start = stack[--top];
+                for(int max : LENGTH_LIMITS){
+                    if(start <= max && max < end){
+                        stack[top++] = max + 1;
+                        stack[top++] = end;
+                        stack[top++] = start;
+                        stack[top++] = max;
+                        continue split;
+                    }
+                }
+                for(int i = 1; i < 4 && end > 0x7F; ++i){
+                    int mask = (1 << (6 * i)) - 1;
+                    if((start & ~mask) == (end & ~mask)){
+                        continue;
+                    }
+                    if((start & mask) != 0){
+                        stack[top++] = (start | mask) + 1;
+                        stack[top++] = end;
+                        stack[top++] = start;
+                        stack[top++] = start | mask;
+                        continue split;
+                    }
+                    if((end & mask) != mask){
+                        stack[top++] = end & ~mask;
+                        stack[top++] = end;
+                        stack[top++] = start;
+                        stack[top++] = (end & ~mask) - 1;
+                        continue split;
+                    }
+                }
+                int length = encode(start, lows);
+                encode(end, highs);
+                int node = from;
+                for(int i = 0; i < length - 1; ++i){
+                    node = child(node, lows[i], highs[i]);
+                }
+                addEdge(node, lows[length - 1], highs[length - 1], to);
+            }
+        }
+
+        ByteAutomate build(boolean[] finals){
+            boolean[] cuts = new boolean[257];
+            cuts[0] = true;
+            for(int edge = 0; edge < edges; ++edge){
+                cuts[edgeBytes[edge] >>> 8] = true;
+                cuts[(edgeBytes[edge] & 0xFF) + 1] = true;
+            }
+            byte[] byteClasses = new byte[256];
+            int width = 0;
+            for(int b = 0; b < 256; ++b){
+                if(cuts[b]){
+                    ++width;
+                }
+                byteClasses[b] = (byte)(width - 1);
+            }
+            int[] table = new int[(nodes + 1) * width];
+            for(int edge = 0; edge < edges; ++edge){
+                int row = (edgeFrom[edge] + 1) * width;
+                for(int b = edgeBytes[edge] >>> 8; b <= (edgeBytes[edge] & 0xFF); ++b){
+                    table[row + (byteClasses[b] & 0xFF)] = edgeTo[edge] + 1;
+                }
+            }
+            boolean[] accepting = new boolean[nodes + 1];
+            for(int state = 0; state < Math.min(finals.length, nodes); ++state){
+                accepting[state + 1] = finals[state];
+            }
+            return new ByteAutomate(byteClasses, width, table, accepting);
+        }
+
+        private int child(int node, int low, int high){
+            long key = ((long)node << 16) | (low << 8) | high;
+            Integer res = children.get(key);
+            if(res == null){
+                res = nodes++;
+                children.put(key, res);
+                addEdge(node, low, high, res);
+            }
+            return res;
+        }
+
+        private void addEdge(int from, int low, int high, int to){
+            if(edges == edgeFrom.length){
+                edgeFrom = Arrays.copyOf(edgeFrom, edges * 2);
+                edgeTo = Arrays.copyOf(edgeTo, edges * 2);
+                edgeBytes = Arrays.copyOf(edgeBytes, edges * 2);
+            }
+            edgeFrom[edges] = from;
+            edgeTo[edges] = to;
+            edgeBytes[edges++] = (low << 8) | high;
+        }
+
+        private static int encode(int codePoint, int[] out){
+            if(codePoint < 0x80){
+                out[0] = codePoint;
+                return 1;
+            }
+            if(codePoint < 0x800){
+                out[0] = 0xC0 | (codePoint >>> 6);
+                out[1] = 0x80 | (codePoint & 0x3F);
+                return 2;
+            }
+            if(codePoint < 0x10000){
+                out[0] = 0xE0 | (codePoint >>> 12);
+                out[1] = 0x80 | ((codePoint >>> 6) & 0x3F);
+                out[2] = 0x80 | (codePoint & 0x3F);
+                return 3;
+            }
+            out[0] = 0xF0 | (codePoint >>> 18);
+            out[1] = 0x80 | ((codePoint >>> 12) & 0x3F);
+            out[2] = 0x80 | ((codePoint >>> 6) & 0x3F);
+            out[3] = 0x80 | (codePoint & 0x3F);
+            return 4;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package automate;
+
+import java.util.Arrays;
+
+final class CompactTransitions {
+
+    private static final int LINEAR_SCAN = 8;
+
+    private final int[] offsets;
+    private final char[] symbols;
+    private final int[] targets;
+
+    CompactTransitions(int[] offsets, char[] symbols, int[] targets) {
+        this.offsets = offsets;
+        this.symbols = symbols;
+        this.targets = targets;
+    }
+
+    static CompactTransitions of(TransitionTable table){
+        return of(table, null);
+    }
+
+    static CompactTransitions of(TransitionTable table, int[] mapping){
+        return of(table, mapping, null, null);
+    }
+
+    static CompactTransitions of(TransitionTable table, SymbolClasses classes, RangeTable ranges){
+        return of(table, classes.mapping(), classes, ranges);
+    }
+
+    private static CompactTransitions of(TransitionTable table, int[] mapping, SymbolClasses classes, RangeTable ranges){
+        int rows = table.rows();
+        int[] offsets = new int[rows + 1];
+        char[] symbols = new char[table.size()];
+        int[] targets = new int[table.size()];
+        long[] row = new long[16];
+        int edge = 0;
+        for(int from = 0; from < rows; ++from){
+            int count = 0;
+            for(int column = 0; column < table.width(); ++column){
+                long symbol = mapping == null ? table.symbolAt(column) : mapping[table.symbolAt(column)];
+                if(symbol < 0){
+                    continue;
+                }
+                for(int e = table.head(from, column); e != TransitionTable.NONE; e = table.next(e)){
+                    if(count == row.length){
+                        row = Arrays.copyOf(row, count * 2);
+                    }
+                    row[count++] = (symbol << 32) | table.target(e);
+                }
+            }
+            for(int i = 0; ranges != null && i < ranges.count(from); ++i){
+                int end = classes.intervalOf(ranges.high(from, i) + 1);
+                for(int interval = classes.intervalOf(ranges.low(from, i)); interval < end; ++interval){
+                    if(count == row.length){
+                        row = Arrays.copyOf(row, count * 2);
+                    }
+                    row[count++] = ((long)classes.intervalClass(interval) << 32) | ranges.target(from, i);
+                }
+            }
+            Arrays.sort(row, 0, count);
+            for(int i = 0; i < count; ++i){
+                if(i > 0 && row[i] == row[i - 1]){
+                    continue;
+                }
+                if(edge == symbols.length){
+                    symbols = Arrays.copyOf(symbols, edge * 2 + 1);
+                    targets = Arrays.copyOf(targets, edge * 2 + 1);
+                }
+                symbols[edge] = (char)(row[i] >>> 32);
+                targets[edge] = (int)row[i];
+                ++edge;
+            }
+            offsets[from + 1] = edge;
+        }
+        if(edge != targets.length){
+            symbols = Arrays.copyOf(symbols, edge);
+            targets = Arrays.copyOf(targets, edge);
+        }
+        return new CompactTransitions(offsets, symbols, targets);
+    }
+
+    public CompactTransitions remap(int[] renumber, int count){
+        int[] order = new int[count];
+        int[] newOffsets = new int[count + 1];
+        for(int from = 0; from < renumber.length && from < rows(); ++from){
+            if(renumber[from] >= 0){
+                order[renumber[from]] = from;
+                newOffsets[renumber[from] + 1] = offsets[from + 1] - offsets[from];
+            }
+        }
+        for(int from = 0; from < count; ++from){
+            newOffsets[from + 1] += newOffsets[from];
+        }
+        char[] newSymbols = new char[newOffsets[count]];
+        int[] newTargets = new int[newOffsets[count]];
+        for(int from = 0; from < count; ++from){
+            int edge = newOffsets[from];
+            int old = order[from];
+            for(int e = offsets[old]; e < offsets[old + 1]; ++e){
+                newSymbols[edge] = symbols[e];
+                newTargets[edge] = renumber[targets[e]];
+                ++edge;
+            }
+        }
+        return new CompactTransitions(newOffsets, newSymbols, newTargets);
+    }
+
+    public CompactTransitions reverse(){
+        int rows = rows();
+        int[] sources = new int[targets.length];
+        for(int from = 0; from < rows; ++from){
+            Arrays.fill(sources, offsets[from], offsets[from + 1], from);
+        }
+        int maxSymbol = 0;
+        for(char symbol : symbols){
+            maxSymbol = Math.max(maxSymbol, symbol);
+        }
+        int[] bySymbol = new int[maxSymbol + 2];
+        for(int edge = 0; edge < symbols.length; ++edge){
+            ++bySymbol[symbols[edge] + 1];
+        }
+        for(int symbol = 0; symbol <= maxSymbol; ++symbol){
+            bySymbol[symbol + 1] += bySymbol[symbol];
+        }
+        int[] order = new int[targets.length];
+        for(int edge = 0; edge < symbols.length; ++edge){
+            order[bySymbol[symbols[edge]]++] = edge;
+        }
+        int[] reverseOffsets = new int[rows + 1];
+        for(int edge = 0; edge < targets.length; ++edge){
+            ++reverseOffsets[targets[edge] + 1];
+        }
+        for(int to = 0; to < rows; ++to){
+            reverseOffsets[to + 1] += reverseOffsets[to];
+        }
+        int[] cursor = Arrays.copyOf(reverseOffsets, rows);
+        char[] reverseSymbols = new char[targets.length];
+        int[] reverseTargets = new int[targets.length];
+        for(int edge : order){
+            int slot = cursor[targets[edge]]++;
+            reverseSymbols[slot] = symbols[edge];
+            reverseTargets[slot] = sources[edge];
+        }
+        return new CompactTransitions(reverseOffsets, reverseSymbols, reverseTargets);
+    }
+
+    public int rows(){
+        return offsets.length - 1;
+    }
+
+    public int size(){
+        return targets.length;
+    }
+
+    public int begin(int from){
+        return offsets[from];
+    }
+
+    public int end(int from){
+        return offsets[from + 1];
+    }
+
+    public char symbol(int edge){
+        return symbols[edge];
+    }
+
+    public int target(int edge){
+        return targets[edge];
+    }
+
+    public void step(StateSet origin, char symbol, StateSet res){
+        long[] words = origin.words();
+        int rows = rows();
+        for(int word = 0; word < words.length; ++word){
+            long bits = words[word];
+            while(bits != 0){
+                int from = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if(from >= rows){
+                    return;
+                }
+                for(int edge = lowerBound(from, symbol); edge < offsets[from + 1] && symbols[edge] == symbol; ++edge){
+                    res.add(targets[edge]);
+                }
+            }
+        }
+    }
+
+    public void read(SymbolClasses classes, EpsilonClosure closure, StateSet initial, CharSequence word, StateSet res){
+        StateSet current = res;
+        StateSet next = new StateSet(rows());
+        current.copyFrom(initial);
+        closure.close(current);
+        for(int i = 0; i < word.length() && !current.isEmpty(); ++i){
+            int symbolClass = classes.classOf(word.charAt(i));
+            if(symbolClass == SymbolClasses.NONE || symbolClass == SymbolClasses.EPSILON){
+                res.clear();
+                return;
+            }
+            next.clear();
+            step(current, (char)symbolClass, next);
+            closure.close(next);
+            StateSet swap = current;
+            current = next;
+            next = swap;
+        }
+        if(current != res){
+            res.copyFrom(current);
+        }
+    }
+
+    public int lowerBound(int from, char symbol){
+        int low = offsets[from];
+        int high = offsets[from + 1];
+        while(high - low > LINEAR_SCAN){
+            int middle = (low + high) >>> 1;
+            if(symbols[middle] < symbol){
+                low = middle + 1;
+            }else{
+                high = middle;
+            }
+        }
+        while(low < high && symbols[low] < symbol){
+            ++low;
+        }
+        return low;
+    }
+}
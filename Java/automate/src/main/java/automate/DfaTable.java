@@ -0,0 +1,83 @@
+package automate;
+
+final class DfaTable {
+
+    static final int DEAD = 0;
+
+    private final SymbolClasses classes;
+    private final int width;
+    private final int[] next;
+    private final long[] accepting;
+    private final int start;
+    private final boolean acceptsEmpty;
+
+    private DfaTable(SymbolClasses classes, int width, int[] next, long[] accepting, int start, boolean acceptsEmpty) {
+        this.classes = classes;
+        this.width = width;
+        this.next = next;
+        this.accepting = accepting;
+        this.start = start;
+        this.acceptsEmpty = acceptsEmpty;
+    }
+
+    static DfaTable of(SymbolClasses classes, CompactTransitions transitions, StateSet initialStates, StateSet finalStates){
+        if(initialStates.size() != 1){
+            return null;
+        }
+        int width = classes.count();
+        int rows = transitions.rows();
+        if((long)(rows + 1) * width > Integer.MAX_VALUE){
+            return null;
+        }
+        int[] next = new int[(rows + 1) * width];
+        for(int from = 0; from < rows; ++from){
+            for(int edge = transitions.begin(from); edge < transitions.end(from); ++edge){
+                char symbolClass = transitions.symbol(edge);
+                if(symbolClass == SymbolClasses.EPSILON || (edge > transitions.begin(from) && transitions.symbol(edge - 1) == symbolClass)){
+                    return null;
+                }
+                next[(from + 1) * width + symbolClass - 1] = (transitions.target(edge) + 1) * width;
+            }
+        }
+        long[] accepting = new long[((rows + 1) >>> 6) + 1];
+        for(int index = finalStates.next(0); index >= 0 && index < rows; index = finalStates.next(index + 1)){
+            accepting[(index + 1) >>> 6] |= 1L << (index + 1);
+        }
+        int initial = initialStates.next(0);
+        return new DfaTable(classes, width, next, accepting, (initial + 1) * width, finalStates.contains(initial));
+    }
+
+    public boolean match(CharSequence word){
+        if(word.length() == 0){
+            return acceptsEmpty;
+        }
+        int state = step(start, word);
+        return state != DEAD && isAccepting(state);
+    }
+
+    int start(){
+        return start;
+    }
+
+    int step(int state, CharSequence word){
+        for(int i = 0; i < word.length(); ++i){
+            int symbolClass = classes.classOf(word.charAt(i));
+            if(symbolClass <= SymbolClasses.EPSILON){
+                return DEAD;
+            }
+            state = next[state + symbolClass - 1];
+            if(state == DEAD){
+                return DEAD;
+            }
+        }
+        return state;
+    }
+
+    boolean isAccepting(int state){
+        if(state == start){
+            return acceptsEmpty;
+        }
+        int row = state / width;
+        return (accepting[row >>> 6] & (1L << row)) != 0;
+    }
+}
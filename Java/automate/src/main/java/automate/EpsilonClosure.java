@@ -0,0 +1,175 @@
+package automate;
+
+import java.util.Arrays;
+
+final class EpsilonClosure {
+
+    private final int[] component;
+    private final int[] offsets;
+    private final int[] members;
+    private final int[] successorStart;
+    private final int[] successors;
+    private final ThreadLocal<Scratch> scratch;
+
+    private EpsilonClosure(int[] component, int[] offsets, int[] members, int[] successorStart, int[] successors) {
+        this.component = component;
+        this.offsets = offsets;
+        this.members = members;
+        this.successorStart = successorStart;
+        this.successors = successors;
+        int count = successorStart == null ? 0 : successorStart.length - 1;
+        scratch = ThreadLocal.withInitial(() -> new Scratch(count));
+    }
+
+    static EpsilonClosure of(CompactTransitions graph){
+        int rows = graph.rows();
+        int[] epsilonEnd = new int[rows];
+        boolean any = false;
+        for(int from = 0; from < rows; ++from){
+            epsilonEnd[from] = graph.lowerBound(from, (char)(SymbolClasses.EPSILON + 1));
+            any |= epsilonEnd[from] != graph.begin(from);
+        }
+        if(!any){
+            return new EpsilonClosure(null, null, null, null, null);
+        }
+        int[] component = new int[rows];
+        int[] order = new int[rows];
+        int[] low = new int[rows];
+        int[] cursor = new int[rows];
+        int[] calls = new int[rows];
+        int[] stack = new int[rows];
+        boolean[] onStack = new boolean[rows];
+        Arrays.fill(order, -1);
+        int counter = 0;
+        int stackTop = 0;
+        int count = 0;
+        int filled = 0;
+        int[] sccStart = new int[rows + 1];
+        int[] sccMembers = new int[rows];
+        for(int root = 0; root < rows; ++root){
+            if(order[root] >= 0){
+                continue;
+            }
+            int callTop = 0;
+            calls[callTop++] = root;
+            order[root] = low[root] = counter++;
+            cursor[root] = graph.begin(root);
+            stack[stackTop++] = root;
+            onStack[root] = true;
+            while(callTop > 0){
+                int v = calls[callTop - 1];
+                if(cursor[v] < epsilonEnd[v]){
+                    int w = graph.target(cursor[v]++);
+                    if(order[w] < 0){
+                        order[w] = low[w] = counter++;
+                        cursor[w] = graph.begin(w);
+                        stack[stackTop++] = w;
+                        onStack[w] = true;
+                        calls[callTop++] = w;
+                    }else if(onStack[w]){
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                    continue;
+                }
+                --callTop;
+                if(callTop > 0){
+                    int parent = calls[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if(low[v] == order[v]){
+                    int w;
+                    do{
+                        w = stack[--stackTop];
+                        onStack[w] = false;
+                        component[w] = count;
+                        sccMembers[filled++] = w;
+                    }while(w != v);
+                    sccStart[++count] = filled;
+                }
+            }
+        }
+        return build(graph, epsilonEnd, component, count, sccStart, sccMembers);
+    }
+
+    private static EpsilonClosure build(CompactTransitions graph, int[] epsilonEnd, int[] component, int count, int[] sccStart, int[] sccMembers){
+        int[] successorStart = new int[count + 1];
+        int[] successors = new int[16];
+        int[] stamp = new int[count];
+        Arrays.fill(stamp, -1);
+        int size = 0;
+        for(int c = 0; c < count; ++c){
+            stamp[c] = c;
+            for(int i = sccStart[c]; i < sccStart[c + 1]; ++i){
+                int m = sccMembers[i];
+                for(int edge = graph.begin(m); edge < epsilonEnd[m]; ++edge){
+                    int next = component[graph.target(edge)];
+                    if(stamp[next] != c){
+                        stamp[next] = c;
+                        if(size == successors.length){
+                            successors = Arrays.copyOf(successors, size * 2);
+                        }
+                        successors[size++] = next;
+                    }
+                }
+            }
+            successorStart[c + 1] = size;
+        }
+        return new EpsilonClosure(component, sccStart, sccMembers, successorStart, Arrays.copyOf(successors, size));
+    }
+
+    public boolean isTrivial(){
+        return component == null;
+    }
+
+    public void close(StateSet set){
+        if(component == null){
+            return;
+        }
+        Scratch scratch = this.scratch.get();
+        int epoch = scratch.next();
+        int[] stamp = scratch.stamp;
+        int[] stack = scratch.stack;
+        for(int from = set.next(0); from >= 0 && from < component.length; from = set.next(from + 1)){
+            int c = component[from];
+            if(stamp[c] == epoch){
+                continue;
+            }
+            stamp[c] = epoch;
+            int top = 0;
+            stack[top++] = c;
+            while(top > 0){
+                int d = stack[--top];
+                for(int i = offsets[d]; i < offsets[d + 1]; ++i){
+                    set.add(members[i]);
+                }
+                for(int i = successorStart[d]; i < successorStart[d + 1]; ++i){
+                    int e = successors[i];
+                    if(stamp[e] != epoch){
+                        stamp[e] = epoch;
+                        stack[top++] = e;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Scratch {
+
+        private final int[] stamp;
+        private final int[] stack;
+        private int epoch;
+
+        Scratch(int count) {
+            stamp = new int[count];
+            stack = new int[count];
+        }
+
+        int next(){
+            if(++epoch == 0){
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+}
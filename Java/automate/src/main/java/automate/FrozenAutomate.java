@@ -0,0 +1,322 @@
+package automate;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+public final class FrozenAutomate {
+
+    private final int[] ids;
+    private final int[] sortedIds;
+    private final int[] sortedIndices;
+    private final SymbolClasses classes;
+    private final CompactTransitions transitions;
+    private final EpsilonClosure closure;
+    private final StateSet initialStates;
+    private final StateSet finalStates;
+    private final DfaTable dfa;
+    private volatile BatchMatcher batch;
+
+    FrozenAutomate(StateIndex states, SymbolClasses classes, CompactTransitions transitions, StateSet initialStates, StateSet finalStates) {
+        int count = states.size();
+        int[] renumber = new int[states.capacity()];
+        ids = new int[count];
+        long[] order = new long[count];
+        int next = 0;
+        for(int index = 0; index < states.capacity(); ++index){
+            if(states.isLive(index)){
+                ids[next] = states.idOf(index);
+                order[next] = ((long)ids[next] << 32) | next;
+                renumber[index] = next++;
+            }else{
+                renumber[index] = -1;
+            }
+        }
+        Arrays.sort(order);
+        sortedIds = new int[count];
+        sortedIndices = new int[count];
+        for(int i = 0; i < count; ++i){
+            sortedIds[i] = (int)(order[i] >>> 32);
+            sortedIndices[i] = (int)order[i];
+        }
+        this.classes = classes;
+        this.transitions = transitions.remap(renumber, count);
+        this.closure = EpsilonClosure.of(this.transitions);
+        this.initialStates = remap(initialStates, renumber, count);
+        this.finalStates = remap(finalStates, renumber, count);
+        this.dfa = DfaTable.of(classes, this.transitions, this.initialStates, this.finalStates);
+    }
+
+    private static StateSet remap(StateSet set, int[] renumber, int count){
+        StateSet res = new StateSet(count);
+        for(int index = set.next(0); index >= 0; index = set.next(index + 1)){
+            if(index < renumber.length && renumber[index] >= 0){
+                res.add(renumber[index]);
+            }
+        }
+        return res;
+    }
+
+    public boolean hasSymbol(char symbol){
+        return classes.classOf(symbol) > SymbolClasses.EPSILON;
+    }
+
+    public boolean hasState(int state){
+        return indexOf(state) >= 0;
+    }
+
+    public boolean isStateInitial(int state){
+        return initialStates.contains(indexOf(state));
+    }
+
+    public boolean isStateFinal(int state){
+        return finalStates.contains(indexOf(state));
+    }
+
+    public long countStates(){
+        return ids.length;
+    }
+
+    public StateSet createStateSet(){
+        return new StateSet(ids.length);
+    }
+
+    public StateSet createStateSet(Set<Integer> origin){
+        StateSet res = createStateSet();
+        for(int state : origin){
+            int index = indexOf(state);
+            if(index >= 0){
+                res.add(index);
+            }
+        }
+        return res;
+    }
+
+    public Set<Integer> toStates(StateSet set){
+        Set<Integer> res = new HashSet<>();
+        for(int index = set.next(0); index >= 0 && index < ids.length; index = set.next(index + 1)){
+            res.add(ids[index]);
+        }
+        return res;
+    }
+
+    public boolean hasFinalState(StateSet set){
+        return set.intersects(finalStates);
+    }
+
+    public Set<Integer> makeTransition(Set<Integer> origin, char alpha){
+        StateSet res = createStateSet();
+        makeTransition(createStateSet(origin), alpha, res);
+        return toStates(res);
+    }
+
+    public void makeTransition(StateSet origin, char alpha, StateSet res){
+        if(origin == res){
+            origin = createStateSet();
+            origin.copyFrom(res);
+        }
+        res.clear();
+        if(hasSymbol(alpha)){
+            transitions.step(origin, (char)classes.classOf(alpha), res);
+            closure.close(res);
+        }
+    }
+
+    public Set<Integer> readString(String word){
+        StateSet res = createStateSet();
+        readString(word, res);
+        return toStates(res);
+    }
+
+    public void readString(String word, StateSet res){
+        transitions.read(classes, closure, initialStates, word, res);
+    }
+
+    public boolean match(String word){
+        if(dfa != null){
+            return dfa.match(word);
+        }
+        StateSet res = createStateSet();
+        readString(word, res);
+        return res.intersects(finalStates);
+    }
+
+    public BitSet matchAll(List<? extends CharSequence> words){
+        return matchAll(words, ForkJoinPool.commonPool());
+    }
+
+    public BitSet matchAll(List<? extends CharSequence> words, ForkJoinPool pool){
+        return batchMatcher().matchAll(words, pool);
+    }
+
+    public BitSet matchAll(Iterator<? extends CharSequence> words){
+        return matchAll(words, ForkJoinPool.commonPool());
+    }
+
+    public BitSet matchAll(Iterator<? extends CharSequence> words, ForkJoinPool pool){
+        return batchMatcher().matchAll(words, pool);
+    }
+
+    public BitSet matchAll(Stream<? extends CharSequence> words){
+        return matchAll(words.iterator(), ForkJoinPool.commonPool());
+    }
+
+    private BatchMatcher batchMatcher(){
+        BatchMatcher res = batch;
+        if(res == null){
+            res = new BatchMatcher(classes, transitions, closure, initialStates, finalStates, dfa);
+            batch = res;
+        }
+        return res;
+    }
+
+    public boolean isLanguageEmpty(){
+        boolean[] visited = new boolean[ids.length];
+        int[] stack = new int[ids.length];
+        int top = 0;
+        for(int index = initialStates.next(0); index >= 0; index = initialStates.next(index + 1)){
+            visited[index] = true;
+            stack[top++] = index;
+        }
+        while(top > 0){
+            int from = stack[--top];
+            if(finalStates.contains(from)){
+                return false;
+            }
+            for(int edge = transitions.begin(from); edge < transitions.end(from); ++edge){
+                int to = transitions.target(edge);
+                if(!visited[to]){
+                    visited[to] = true;
+                    stack[top++] = to;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isIncludedIn(FrozenAutomate other){
+        if(isLanguageEmpty()){
+            return true;
+        }
+        int[] pairs = new int[2 * classes.count()];
+        int pairCount = 0;
+        boolean[] seenPairs = new boolean[(classes.count() + 1) * (other.classes.count() + 2)];
+        for(int symbol = 1; symbol <= 0xFFFF; ){
+            int end = Math.min(classes.intervalEnd((char)symbol), other.classes.intervalEnd((char)symbol));
+            int own = classes.classOf((char)symbol);
+            int theirs = other.hasSymbol((char)symbol) ? other.classes.classOf((char)symbol) : 0;
+            symbol = end + 1;
+            if(own <= SymbolClasses.EPSILON){
+                continue;
+            }
+            int key = own * (other.classes.count() + 2) + theirs;
+            if(!seenPairs[key]){
+                seenPairs[key] = true;
+                if(pairCount == pairs.length){
+                    pairs = Arrays.copyOf(pairs, pairCount * 2);
+                }
+                pairs[pairCount++] = own;
+                pairs[pairCount++] = theirs;
+            }
+        }
+        Map<StateSet, StateSet> seen = new HashMap<>();
+        StateSet[] subsets = new StateSet[16];
+        int[] owners = new int[16];
+        int top = 0;
+        StateSet start = other.createStateSet();
+        start.copyFrom(other.initialStates);
+        other.closure.close(start);
+        StateSet visited = createStateSet();
+        seen.put(start, visited);
+        for(int index = initialStates.next(0); index >= 0; index = initialStates.next(index + 1)){
+            visited.add(index);
+            if(top == owners.length){
+                owners = Arrays.copyOf(owners, top * 2);
+                subsets = Arrays.copyOf(subsets, top * 2);
+            }
+            subsets[top] = start;
+            owners[top++] = index;
+        }
+        while(top > 0){
+            int from = owners[--top];
+            StateSet subset = subsets[top];
+            subsets[top] = null;
+            if(finalStates.contains(from) && !other.hasFinalState(subset)){
+                return false;
+            }
+            StateSet owned = seen.get(subset);
+            for(int edge = transitions.begin(from); edge < transitions.end(from) && transitions.symbol(edge) == SymbolClasses.EPSILON; ++edge){
+                int to = transitions.target(edge);
+                if(owned.add(to)){
+                    if(top == owners.length){
+                        owners = Arrays.copyOf(owners, top * 2);
+                        subsets = Arrays.copyOf(subsets, top * 2);
+                    }
+                    subsets[top] = subset;
+                    owners[top++] = to;
+                }
+            }
+            for(int i = 0; i < pairCount; i += 2){
+                char own = (char)pairs[i];
+                int edge = transitions.lowerBound(from, own);
+                if(edge == transitions.end(from) || transitions.symbol(edge) != own){
+                    continue;
+                }
+                StateSet next = other.createStateSet();
+                if(pairs[i + 1] != 0){
+                    other.transitions.step(subset, (char)pairs[i + 1], next);
+                    other.closure.close(next);
+                }
+                StateSet reached = seen.get(next);
+                if(reached == null){
+                    reached = createStateSet();
+                    seen.put(next, reached);
+                }
+                for(; edge < transitions.end(from) && transitions.symbol(edge) == own; ++edge){
+                    int to = transitions.target(edge);
+                    if(reached.add(to)){
+                        if(top == owners.length){
+                            owners = Arrays.copyOf(owners, top * 2);
+                            subsets = Arrays.copyOf(subsets, top * 2);
+                        }
+                        subsets[top] = next;
+                        owners[top++] = to;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    CompactTransitions transitions(){
+        return transitions;
+    }
+
+    EpsilonClosure closure(){
+        return closure;
+    }
+
+    SymbolClasses classes(){
+        return classes;
+    }
+
+    StateSet initialStates(){
+        return initialStates;
+    }
+
+    StateSet finalStates(){
+        return finalStates;
+    }
+
+    private int indexOf(int state){
+        int position = Arrays.binarySearch(sortedIds, state);
+        return position < 0 ? -1 : sortedIndices[position];
+    }
+}
@@ -0,0 +1,70 @@
+package automate;
+
+final class HybridMatcher {
+
+    private final LazyDfa lazy;
+    private final NfaSimulation simulation;
+    private final StateSet handoff;
+    private boolean simulating;
+    private int state;
+    private int fallbacks;
+
+    HybridMatcher(SymbolClasses classes, CompactTransitions transitions, EpsilonClosure closure, StateSet initialStates, StateSet finalStates, int cacheBytes) {
+        LazyDfa lazy = new LazyDfa(classes, transitions, closure, initialStates, finalStates, cacheBytes);
+        this.lazy = lazy.isUsable() ? lazy : null;
+        simulation = new NfaSimulation(classes, transitions, initialStates, finalStates);
+        handoff = new StateSet(transitions.rows());
+    }
+
+    public int fallbacks(){
+        return fallbacks;
+    }
+
+    public boolean usesLazyDfa(){
+        return lazy != null;
+    }
+
+    public boolean match(CharSequence word){
+        start();
+        return step(word) && isAccepting();
+    }
+
+    public void read(CharSequence word, StateSet res){
+        start();
+        if(!step(word)){
+            res.clear();
+        }else if(simulating){
+            simulation.load(res);
+        }else{
+            lazy.load(state, res);
+        }
+    }
+
+    void start(){
+        simulating = lazy == null;
+        if(simulating){
+            simulation.start();
+        }else{
+            state = lazy.start();
+        }
+    }
+
+    boolean step(CharSequence word){
+        if(simulating){
+            return simulation.step(word);
+        }
+        state = lazy.step(state, word);
+        if(state != LazyDfa.GAVE_UP){
+            return !lazy.isDead(state);
+        }
+        ++fallbacks;
+        simulating = true;
+        lazy.loadResume(handoff);
+        simulation.start(handoff);
+        return simulation.step(word, lazy.resumeAt());
+    }
+
+    boolean isAccepting(){
+        return simulating ? simulation.isAccepting() : lazy.isAccepting(state);
+    }
+}
@@ -0,0 +1,159 @@
+package automate;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+abstract class IntStorage {
+
+    static IntStorage allocate(boolean offHeap, int length){
+        return offHeap ? new Direct(length) : new Heap(length);
+    }
+
+    abstract int get(int index);
+
+    abstract void set(int index, int value);
+
+    abstract int length();
+
+    abstract boolean isOffHeap();
+
+    void close(){
+    }
+
+    void fill(int from, int to, int value){
+        for(int i = from; i < to; ++i){
+            set(i, value);
+        }
+    }
+
+    IntStorage copyOf(int length){
+        IntStorage res = allocate(isOffHeap(), length);
+        int count = Math.min(length, length());
+        for(int i = 0; i < count; ++i){
+            res.set(i, get(i));
+        }
+        close();
+        return res;
+    }
+
+    private static final class Heap extends IntStorage {
+
+        private int[] values;
+
+        Heap(int length) {
+            values = new int[length];
+        }
+
+        @Override
+        int get(int index){
+            return values[index];
+        }
+
+        @Override
+        void set(int index, int value){
+            values[index] = value;
+        }
+
+        @Override
+        int length(){
+            return values.length;
+        }
+
+        @Override
+        boolean isOffHeap(){
+            return false;
+        }
+
+        @Override
+        void fill(int from, int to, int value){
+            Arrays.fill(values, from, to, value);
+        }
+
+        @Override
+        IntStorage copyOf(int length){
+            values = Arrays.copyOf(values, length);
+            return this;
+        }
+    }
+
+    private static final class Direct extends IntStorage {
+
+        private static final Method INVOKE_CLEANER;
+        private static final Object UNSAFE;
+
+        static {
+            Method invokeCleaner = null;
+            Object unsafe = null;
+            try{
+                Class<?> type = Class.forName("sun.misc.Unsafe");
+                Field field = type.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+            }catch(ReflectiveOperationException | RuntimeException e){
+                unsafe = null;
+                invokeCleaner = null;
+            }
+            INVOKE_CLEANER = invokeCleaner;
+            UNSAFE = unsafe;
+        }
+
+        private ByteBuffer memory;
+        private IntBuffer values;
+        private final int length;
+
+        Direct(int length) {
+            this.length = length;
+            memory = ByteBuffer.allocateDirect(Math.multiplyExact(length, 4)).order(ByteOrder.nativeOrder());
+            values = memory.asIntBuffer();
+        }
+
+        @Override
+        int get(int index){
+            return buffer().get(index);
+        }
+
+        @Override
+        void set(int index, int value){
+            buffer().put(index, value);
+        }
+
+        @Override
+        int length(){
+            return length;
+        }
+
+        @Override
+        boolean isOffHeap(){
+            return true;
+        }
+
+        @Override
+        void close(){
+            if(memory == null){
+                return;
+            }
+            ByteBuffer released = memory;
+            memory = null;
+            values = null;
+            if(INVOKE_CLEANER != null){
+                try{
+                    INVOKE_CLEANER.invoke(UNSAFE, released);
+                }catch(ReflectiveOperationException | RuntimeException e){
+                    return;
+                }
+            }
+        }
+
+        private IntBuffer buffer(){
+            if(values == null){
+                throw new IllegalStateException("Off-heap storage is closed");
+            }
+            return values;
+        }
+    }
+}
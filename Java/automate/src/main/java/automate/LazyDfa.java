@@ -0,0 +1,214 @@
+package automate;
+
+import java.util.Arrays;
+
+final class LazyDfa {
+
+    static final int DEFAULT_CACHE_BYTES = 1 << 21;
+    static final int GAVE_UP = -2;
+    static final int MAX_SLOW_FLUSHES = 2;
+    static final int MIN_CHARS_PER_STATE = 10;
+    static final int MIN_CACHED_STATES = 64;
+
+    private static final int UNKNOWN = -1;
+
+    private final SymbolClasses classes;
+    private final CompactTransitions transitions;
+    private final EpsilonClosure closure;
+    private final StateSet finalStates;
+    private final StateSet start;
+    private final StateSet current;
+    private final StateSet empty;
+    private final StateSet next;
+    private final int width;
+    private final int maxStates;
+    private final boolean unanchored;
+    private StateSetPool pool;
+    private int[] moves;
+    private long[] accepting;
+    private int startState;
+    private int dead;
+    private int flushes;
+    private long searchChars;
+    private long flushChars;
+    private int slowFlushes;
+    private int resumeState;
+    private int resumeAt;
+
+    LazyDfa(SymbolClasses classes, CompactTransitions transitions, EpsilonClosure closure, StateSet initialStates, StateSet finalStates, int cacheBytes) {
+        this(classes, transitions, closure, initialStates, finalStates, cacheBytes, false);
+    }
+
+    LazyDfa(SymbolClasses classes, CompactTransitions transitions, EpsilonClosure closure, StateSet initialStates, StateSet finalStates, int cacheBytes, boolean unanchored) {
+        this.unanchored = unanchored;
+        this.classes = classes;
+        this.transitions = transitions;
+        this.closure = closure;
+        int rows = transitions.rows();
+        this.finalStates = new StateSet(rows);
+        this.finalStates.copyFrom(finalStates);
+        start = new StateSet(rows);
+        start.copyFrom(initialStates);
+        closure.close(start);
+        current = new StateSet(rows);
+        empty = new StateSet(rows);
+        next = new StateSet(rows);
+        width = Math.max(1, classes.count());
+        long stateBytes = 4L * width + 8L * Math.max(1, (rows + 63) >>> 6) + 16;
+        maxStates = (int)Math.max(4, Math.min(Integer.MAX_VALUE / width, cacheBytes / stateBytes));
+        flush();
+    }
+
+    public int flushes(){
+        return flushes;
+    }
+
+    public boolean isUsable(){
+        return maxStates >= MIN_CACHED_STATES;
+    }
+
+    public int cachedStates(){
+        return pool.size();
+    }
+
+    public boolean match(CharSequence word){
+        return isAccepting(run(word));
+    }
+
+    public void read(CharSequence word, StateSet res){
+        load(run(word), res);
+    }
+
+    int start(){
+        searchChars = 0;
+        flushChars = 0;
+        slowFlushes = 0;
+        return startState;
+    }
+
+    void load(int state, StateSet res){
+        if(state < 0){
+            res.clear();
+        }else{
+            pool.load(state, res);
+        }
+    }
+
+    void loadResume(StateSet res){
+        pool.load(resumeState, res);
+    }
+
+    int resumeAt(){
+        return resumeAt;
+    }
+
+    int enter(StateSet set){
+        if(pool.size() + 1 >= maxStates){
+            flush();
+        }
+        return intern(set);
+    }
+
+    boolean isDead(int state){
+        return state < 0 || state == dead;
+    }
+
+    boolean isAccepting(int state){
+        return state >= 0 && (accepting[state >>> 6] & (1L << state)) != 0;
+    }
+
+    int step(int state, char symbol){
+        int symbolClass = classes.classOf(symbol);
+        if(symbolClass <= SymbolClasses.EPSILON){
+            return unanchored ? startState : dead;
+        }
+        int to = moves[state * width + symbolClass - 1];
+        return to == UNKNOWN ? compute(state, symbolClass) : to;
+    }
+
+    private int run(CharSequence word){
+        return step(start(), word, false);
+    }
+
+    int step(int state, CharSequence word){
+        return step(state, word, true);
+    }
+
+    private int step(int state, CharSequence word, boolean bail){
+        for(int i = 0; i < word.length() && state != dead; ++i){
+            int symbolClass = classes.classOf(word.charAt(i));
+            if(symbolClass <= SymbolClasses.EPSILON){
+                return -1;
+            }
+            int to = moves[state * width + symbolClass - 1];
+            if(to == UNKNOWN){
+                int before = flushes;
+                to = compute(state, symbolClass);
+                if(bail && flushes != before && isSlow(searchChars + i + 1)){
+                    resumeState = to;
+                    resumeAt = i + 1;
+                    return GAVE_UP;
+                }
+            }
+            state = to;
+        }
+        searchChars += word.length();
+        return state;
+    }
+
+    private boolean isSlow(long position){
+        boolean slow = position - flushChars < (long)MIN_CHARS_PER_STATE * maxStates;
+        flushChars = position;
+        return slow && ++slowFlushes >= MAX_SLOW_FLUSHES;
+    }
+
+    private int compute(int state, int symbolClass){
+        pool.load(state, current);
+        next.clear();
+        transitions.step(current, (char)symbolClass, next);
+        closure.close(next);
+        if(unanchored){
+            next.or(start);
+        }
+        if(pool.size() + 1 >= maxStates){
+            flush();
+            state = intern(current);
+        }
+        int to = intern(next);
+        moves[state * width + symbolClass - 1] = to;
+        return to;
+    }
+
+    private int intern(StateSet set){
+        int size = pool.size();
+        int id = pool.intern(set);
+        if(id == size){
+            if(id * width + width > moves.length){
+                int length = (int)Math.min((long)maxStates * width, Math.max(moves.length * 2L, (long)(id + 1) * width));
+                int old = moves.length;
+                moves = Arrays.copyOf(moves, length);
+                Arrays.fill(moves, old, length, UNKNOWN);
+            }
+            if((id >>> 6) >= accepting.length){
+                accepting = Arrays.copyOf(accepting, accepting.length * 2);
+            }
+            if(set.intersects(finalStates)){
+                accepting[id >>> 6] |= 1L << id;
+            }
+        }
+        return id;
+    }
+
+    private void flush(){
+        if(pool != null){
+            ++flushes;
+        }
+        pool = new StateSetPool(transitions.rows());
+        moves = new int[Math.min(maxStates, 16) * width];
+        Arrays.fill(moves, UNKNOWN);
+        accepting = new long[1];
+        dead = intern(empty);
+        Arrays.fill(moves, 0, width, dead);
+        startState = intern(start);
+    }
+}
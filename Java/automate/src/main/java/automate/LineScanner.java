@@ -0,0 +1,212 @@
+package automate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+
+public final class LineScanner {
+
+    static final int DEFAULT_WINDOW = 1 << 26;
+
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final ByteAutomate automate;
+    private final ForkJoinPool pool;
+    private final int window;
+
+    LineScanner(ByteAutomate automate, ForkJoinPool pool, int window) {
+        this.automate = automate;
+        this.pool = pool;
+        this.window = window;
+    }
+
+    public long count(Path file) throws IOException{
+        long[] res = new long[1];
+        run(file, true, null, res);
+        return res[0];
+    }
+
+    public long[] find(Path file) throws IOException{
+        long[][] res = { new long[16] };
+        int[] count = new int[1];
+        scan(file, true, line -> {
+            if(count[0] == res[0].length){
+                res[0] = Arrays.copyOf(res[0], 2 * count[0]);
+            }
+            res[0][count[0]++] = line;
+        });
+        return Arrays.copyOf(res[0], count[0]);
+    }
+
+    public void scan(Path file, boolean ordered, LongConsumer lines) throws IOException{
+        run(file, ordered, lines, null);
+    }
+
+    private void run(Path file, boolean ordered, LongConsumer lines, long[] count) throws IOException{
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            long size = channel.size();
+            ArrayDeque<Chunk> pending = new ArrayDeque<>();
+            for(long begin = 0; begin < size; begin += window){
+                Chunk chunk = new Chunk(channel, size, begin, Math.min(size, begin + window), lines == null, ordered ? null : lines);
+                pool.execute(chunk);
+                pending.add(chunk);
+                if(pending.size() > 2 * pool.getParallelism()){
+                    finish(pending.poll(), lines, count);
+                }
+            }
+            while(!pending.isEmpty()){
+                finish(pending.poll(), lines, count);
+            }
+        }
+    }
+
+    private static void finish(Chunk chunk, LongConsumer lines, long[] count) throws IOException{
+        try{
+            chunk.join();
+        }catch(UncheckedIOException e){
+            throw e.getCause();
+        }
+        if(count != null){
+            count[0] += chunk.count;
+        }
+        if(lines != null){
+            for(int i = 0; i < chunk.size; ++i){
+                lines.accept(chunk.lines[i]);
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long begin, long end) throws IOException{
+        return channel.map(FileChannel.MapMode.READ_ONLY, begin, end - begin).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static int indexOfNewline(ByteBuffer buffer, int from, int to){
+        int i = from;
+        for(; i + 8 <= to; i += 8){
+            long word = buffer.getLong(i) ^ NEWLINES;
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if(found != 0){
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for(; i < to; ++i){
+            if(buffer.get(i) == '\n'){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final long begin;
+        private final long end;
+        private final boolean counting;
+        private final LongConsumer direct;
+        private long count;
+        private long[] lines;
+        private int size;
+
+        Chunk(FileChannel channel, long fileSize, long begin, long end, boolean counting, LongConsumer direct) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.begin = begin;
+            this.end = end;
+            this.counting = counting;
+            this.direct = direct;
+        }
+
+        @Override
+        protected void compute(){
+            try{
+                scan();
+            }catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void scan() throws IOException{
+            long base = Math.max(0, begin - 1);
+            ByteBuffer buffer = map(channel, base, end);
+            int limit = (int)(end - base);
+            int start = 0;
+            if(begin > 0){
+                start = indexOfNewline(buffer, 0, limit) + 1;
+                if(start == 0){
+                    return;
+                }
+            }
+            while(start < limit){
+                int newline = indexOfNewline(buffer, start, limit);
+                if(newline < 0){
+                    if(continueLine(buffer, start, limit)){
+                        report(base + start);
+                    }
+                    return;
+                }
+                int contentEnd = newline > start && buffer.get(newline - 1) == '\r' ? newline - 1 : newline;
+                if(automate.isAccepting(automate.step(ByteAutomate.START, buffer, start, contentEnd))){
+                    report(base + start);
+                }
+                start = newline + 1;
+            }
+        }
+
+        private boolean continueLine(ByteBuffer buffer, int start, int limit) throws IOException{
+            int state = automate.step(ByteAutomate.START, buffer, start, limit - 1);
+            byte pending = buffer.get(limit - 1);
+            long position = end;
+            while(position < fileSize && state != ByteAutomate.DEAD){
+                long next = Math.min(fileSize, position + window);
+                ByteBuffer part = map(channel, position, next);
+                int partLimit = (int)(next - position);
+                int newline = indexOfNewline(part, 0, partLimit);
+                if(newline >= 0){
+                    if(newline > 0 || pending != '\r'){
+                        state = automate.step(state, pending);
+                    }
+                    int contentEnd = newline > 0 && part.get(newline - 1) == '\r' ? newline - 1 : newline;
+                    return automate.isAccepting(automate.step(state, part, 0, contentEnd));
+                }
+                state = automate.step(automate.step(state, pending), part, 0, partLimit - 1);
+                pending = part.get(partLimit - 1);
+                position = next;
+            }
+            return automate.isAccepting(automate.step(state, pending));
+        }
+
+        private void report(long line){
+            ++count;
+            if(counting){
+                return;
+            }
+            if(direct != null){
+                synchronized(direct){
+                    direct.accept(line);
+                }
+                return;
+            }
+            if(lines == null){
+                lines = new long[64];
+            }else if(size == lines.length){
+                lines = Arrays.copyOf(lines, 2 * size);
+            }
+            lines[size++] = line;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package automate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class MappedAutomate {
+
+    static final int TABLE_MAGIC = 0x41555454;
+    static final int TABLE_VERSION = 1;
+
+    private static final int HEADER = 16;
+    private static final int SYMBOLS = 0x10000;
+
+    private final ByteBuffer buffer;
+    private final CharBuffer classes;
+    private final IntBuffer table;
+    private final LongBuffer accepting;
+    private final int states;
+    private final int width;
+
+    private MappedAutomate(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if(this.buffer.remaining() < HEADER || this.buffer.getInt(0) != TABLE_MAGIC){
+            throw new IOException("Not an automate table");
+        }
+        int version = this.buffer.getInt(4);
+        if(version != TABLE_VERSION){
+            throw new IOException("Unsupported automate table version " + version);
+        }
+        states = this.buffer.getInt(8);
+        width = this.buffer.getInt(12);
+        long tableOffset = HEADER + 2L * SYMBOLS;
+        long acceptingOffset = tableOffset + 4L * states * width;
+        if(states < 1 || width < 0 || this.buffer.remaining() != acceptingOffset + 8L * words(states)){
+            throw new IOException("Truncated automate table");
+        }
+        classes = slice(HEADER, 2 * SYMBOLS).asCharBuffer();
+        table = slice((int)tableOffset, 4 * states * width).asIntBuffer();
+        accepting = slice((int)acceptingOffset, 8 * words(states)).asLongBuffer();
+    }
+
+    public static MappedAutomate open(Path path) throws IOException{
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            return new MappedAutomate(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static MappedAutomate of(ByteBuffer buffer) throws IOException{
+        return new MappedAutomate(buffer.slice());
+    }
+
+    static void write(FrozenAutomate dfa, OutputStream out) throws IOException{
+        CompactTransitions graph = dfa.transitions();
+        SymbolClasses symbolClasses = dfa.classes();
+        int states = graph.rows();
+        int width = symbolClasses.count();
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        chunk.putInt(TABLE_MAGIC).putInt(TABLE_VERSION).putInt(states).putInt(width);
+        for(int symbol = 0; symbol < SYMBOLS; ++symbol){
+            chunk = reserve(chunk, 2, out);
+            chunk.putChar((char)Math.max(SymbolClasses.EPSILON, symbolClasses.classOf((char)symbol)));
+        }
+        for(int from = 0; from < states; ++from){
+            int edge = graph.begin(from);
+            for(int symbolClass = 1; symbolClass <= width; ++symbolClass){
+                while(edge < graph.end(from) && graph.symbol(edge) < symbolClass){
+                    ++edge;
+                }
+                chunk = reserve(chunk, 4, out);
+                chunk.putInt(edge < graph.end(from) && graph.symbol(edge) == symbolClass ? graph.target(edge) : -1);
+            }
+        }
+        for(int word = 0; word < words(states); ++word){
+            long bits = 0;
+            for(int state = word << 6; state < Math.min(states, (word + 1) << 6); ++state){
+                if(dfa.finalStates().contains(state)){
+                    bits |= 1L << state;
+                }
+            }
+            chunk = reserve(chunk, 8, out);
+            chunk.putLong(bits);
+        }
+        out.write(chunk.array(), 0, chunk.position());
+        out.flush();
+    }
+
+    public int countStates(){
+        return states;
+    }
+
+    public boolean hasSymbol(char symbol){
+        return classes.get(symbol) != SymbolClasses.EPSILON;
+    }
+
+    public boolean match(CharSequence word){
+        int state = 0;
+        for(int i = 0; i < word.length(); ++i){
+            int symbolClass = classes.get(word.charAt(i));
+            if(symbolClass == SymbolClasses.EPSILON){
+                return false;
+            }
+            state = table.get(state * width + symbolClass - 1);
+            if(state < 0){
+                return false;
+            }
+        }
+        return (accepting.get(state >>> 6) & (1L << state)) != 0;
+    }
+
+    private static int words(int states){
+        return (states + 63) >>> 6;
+    }
+
+    private static ByteBuffer reserve(ByteBuffer chunk, int bytes, OutputStream out) throws IOException{
+        if(chunk.remaining() < bytes){
+            out.write(chunk.array(), 0, chunk.position());
+            chunk.clear();
+        }
+        return chunk;
+    }
+
+    private ByteBuffer slice(int offset, int length){
+        ByteBuffer res = buffer.duplicate();
+        res.limit(offset + length);
+        res.position(offset);
+        return res.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
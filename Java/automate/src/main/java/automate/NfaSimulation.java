@@ -0,0 +1,113 @@
+package automate;
+
+final class NfaSimulation {
+
+    private final SymbolClasses classes;
+    private final CompactTransitions transitions;
+    private final StateSet initialStates;
+    private final StateSet finalStates;
+    private final int[] stack;
+    private SparseSet current;
+    private SparseSet next;
+
+    NfaSimulation(SymbolClasses classes, CompactTransitions transitions, StateSet initialStates, StateSet finalStates) {
+        this.classes = classes;
+        this.transitions = transitions;
+        int rows = transitions.rows();
+        this.initialStates = new StateSet(rows);
+        this.initialStates.copyFrom(initialStates);
+        this.finalStates = new StateSet(rows);
+        this.finalStates.copyFrom(finalStates);
+        stack = new int[Math.max(1, rows)];
+        current = new SparseSet(rows);
+        next = new SparseSet(rows);
+    }
+
+    public boolean match(CharSequence word){
+        return run(word) && isAccepting();
+    }
+
+    boolean isAccepting(){
+        for(int i = 0; i < current.size(); ++i){
+            if(finalStates.contains(current.get(i))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void read(CharSequence word, StateSet res){
+        if(run(word)){
+            load(res);
+        }else{
+            res.clear();
+        }
+    }
+
+    private boolean run(CharSequence word){
+        start();
+        return step(word);
+    }
+
+    void start(){
+        current.clear();
+        for(int state = initialStates.next(0); state >= 0 && state < current.capacity(); state = initialStates.next(state + 1)){
+            follow(state, current);
+        }
+    }
+
+    void start(StateSet set){
+        current.clear();
+        for(int state = set.next(0); state >= 0 && state < current.capacity(); state = set.next(state + 1)){
+            current.add(state);
+        }
+    }
+
+    void load(StateSet res){
+        res.clear();
+        for(int i = 0; i < current.size(); ++i){
+            res.add(current.get(i));
+        }
+    }
+
+    boolean step(CharSequence word){
+        return step(word, 0);
+    }
+
+    boolean step(CharSequence word, int offset){
+        for(int i = offset; i < word.length() && !current.isEmpty(); ++i){
+            int symbolClass = classes.classOf(word.charAt(i));
+            if(symbolClass <= SymbolClasses.EPSILON){
+                return false;
+            }
+            next.clear();
+            for(int j = 0; j < current.size(); ++j){
+                int from = current.get(j);
+                for(int edge = transitions.lowerBound(from, (char)symbolClass); edge < transitions.end(from) && transitions.symbol(edge) == symbolClass; ++edge){
+                    follow(transitions.target(edge), next);
+                }
+            }
+            SparseSet swap = current;
+            current = next;
+            next = swap;
+        }
+        return !current.isEmpty();
+    }
+
+    private void follow(int state, SparseSet set){
+        if(!set.add(state)){
+            return;
+        }
+        int top = 0;
+        stack[top++] = state;
+        while(top > 0){
+            int from = stack[--top];
+            for(int edge = transitions.begin(from); edge < transitions.end(from) && transitions.symbol(edge) == SymbolClasses.EPSILON; ++edge){
+                int to = transitions.target(edge);
+                if(set.add(to)){
+                    stack[top++] = to;
+                }
+            }
+        }
+    }
+}
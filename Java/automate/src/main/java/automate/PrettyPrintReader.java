@@ -0,0 +1,202 @@
+package automate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+final class PrettyPrintReader {
+
+    private final Reader in;
+    private final char[] buffer;
+    private final char[] token;
+    private final int[] chunk;
+    private final AutomateBuilder builder;
+    private int position;
+    private int limit;
+    private int length;
+    private long line;
+    private long tokenLine;
+
+    PrettyPrintReader(Reader in) {
+        this.in = in;
+        buffer = new char[1 << 13];
+        token = new char[32];
+        chunk = new int[1 << 12];
+        builder = new AutomateBuilder();
+        line = 1;
+    }
+
+    public Automate read() throws IOException{
+        boolean more = next();
+        if(more && is("Alphabet")){
+            while((more = next()) && length == 1){
+                builder.addSymbols(token[0]);
+            }
+        }
+        expect(more, "Initial");
+        expect(next(), "states");
+        int count = 0;
+        while((more = next()) && isNumber()){
+            if(count == chunk.length){
+                builder.setStatesInitial(chunk);
+                count = 0;
+            }
+            chunk[count++] = number(length);
+        }
+        builder.setStatesInitial(Arrays.copyOf(chunk, count));
+        expect(more, "Final");
+        expect(next(), "states");
+        count = 0;
+        while((more = next()) && isNumber()){
+            if(count == chunk.length){
+                builder.setStatesFinal(chunk);
+                count = 0;
+            }
+            chunk[count++] = number(length);
+        }
+        builder.setStatesFinal(Arrays.copyOf(chunk, count));
+        expect(more, "Transitions:");
+        more = next();
+        count = 0;
+        int from = -1;
+        while(more){
+            expect(more, "For");
+            expect(next(), null);
+            if(is("state")){
+                expect(next(), null);
+                if(length < 2 || token[length - 1] != ':'){
+                    throw error("state");
+                }
+                from = number(length - 1);
+                if(count == chunk.length){
+                    builder.addStates(chunk);
+                    count = 0;
+                }
+                chunk[count++] = from;
+                more = next();
+                continue;
+            }
+            if(from < 0){
+                throw error("For state");
+            }
+            if(is("letter")){
+                expect(next(), null);
+                if(length != 2 || token[1] != ':'){
+                    throw error("letter");
+                }
+                char symbol = token[0];
+                builder.addSymbols(symbol);
+                while((more = next()) && isNumber()){
+                    builder.addTransition(from, symbol, number(length));
+                }
+            }else if(is("epsilon:")){
+                while((more = next()) && isNumber()){
+                    builder.addTransition(from, Automate.Epsilon, number(length));
+                }
+            }else if(is("range")){
+                expect(next(), null);
+                if(length != 10 || token[4] != '-' || token[9] != ':'){
+                    throw error("range");
+                }
+                char low = (char)hex(0);
+                char high = (char)hex(5);
+                while((more = next()) && isNumber()){
+                    builder.addTransition(from, low, high, number(length));
+                }
+            }else{
+                throw error("letter, epsilon or range");
+            }
+        }
+        builder.addStates(Arrays.copyOf(chunk, count));
+        return builder.build();
+    }
+
+    private boolean next() throws IOException{
+        int c;
+        do{
+            c = readChar();
+            if(c == '\n'){
+                ++line;
+            }
+        }while(c == ' ' || c == '\t' || c == '\n' || c == '\r');
+        tokenLine = line;
+        length = 0;
+        while(c >= 0 && c != ' ' && c != '\t' && c != '\n' && c != '\r'){
+            if(length == token.length){
+                throw error("a shorter token");
+            }
+            token[length++] = (char)c;
+            c = readChar();
+        }
+        if(c == '\n'){
+            ++line;
+        }
+        return length != 0;
+    }
+
+    private int readChar() throws IOException{
+        if(position == limit){
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if(limit <= 0){
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private boolean is(String word){
+        if(length != word.length()){
+            return false;
+        }
+        for(int i = 0; i < length; ++i){
+            if(token[i] != word.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isNumber(){
+        return (token[0] >= '0' && token[0] <= '9') || (token[0] == '-' && length > 1);
+    }
+
+    private void expect(boolean more, String word) throws IOException{
+        if(!more || (word != null && !is(word))){
+            throw error(word == null ? "more input" : word);
+        }
+    }
+
+    private int number(int end) throws IOException{
+        boolean negative = token[0] == '-';
+        long res = 0;
+        for(int i = negative ? 1 : 0; i < end; ++i){
+            if(token[i] < '0' || token[i] > '9' || res > Integer.MAX_VALUE){
+                throw error("a state");
+            }
+            res = res * 10 + (token[i] - '0');
+        }
+        res = negative ? -res : res;
+        if(res > Integer.MAX_VALUE || res < Integer.MIN_VALUE){
+            throw error("a state");
+        }
+        return (int)res;
+    }
+
+    private int hex(int offset) throws IOException{
+        int res = 0;
+        for(int i = offset; i < offset + 4; ++i){
+            int digit = Character.digit(token[i], 16);
+            if(digit < 0){
+                throw error("range");
+            }
+            res = (res << 4) | digit;
+        }
+        return res;
+    }
+
+    private IOException error(String expected){
+        return new IOException("Malformed automate dump at line " + tokenLine + ": expected " + expected);
+    }
+}
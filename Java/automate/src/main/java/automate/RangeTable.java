@@ -0,0 +1,149 @@
+package automate;
+
+import java.util.Arrays;
+
+final class RangeTable {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[][] entries;
+    private int[] counts;
+    private int size;
+
+    RangeTable() {
+        entries = new long[0][];
+        counts = new int[0];
+    }
+
+    private static long pack(char low, char high, int to){
+        return ((long)low << 48) | ((long)high << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    public int rows(){
+        return counts.length;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int count(int from){
+        return from < counts.length ? counts[from] : 0;
+    }
+
+    public char low(int from, int i){
+        return (char)(entries[from][i] >>> 48);
+    }
+
+    public char high(int from, int i){
+        return (char)(entries[from][i] >>> 32);
+    }
+
+    public int target(int from, int i){
+        return (int)entries[from][i];
+    }
+
+    public void ensureRows(int count){
+        if(count <= counts.length){
+            return;
+        }
+        int rows = counts.length;
+        int newRows = Math.max(count, rows * 2);
+        entries = Arrays.copyOf(entries, newRows);
+        Arrays.fill(entries, rows, newRows, EMPTY);
+        counts = Arrays.copyOf(counts, newRows);
+    }
+
+    public boolean contains(int from, char low, char high, int to){
+        return from < counts.length && Arrays.binarySearch(entries[from], 0, counts[from], pack(low, high, to)) >= 0;
+    }
+
+    public boolean add(int from, char low, char high, int to){
+        long entry = pack(low, high, to);
+        int position = Arrays.binarySearch(entries[from], 0, counts[from], entry);
+        if(position >= 0){
+            return false;
+        }
+        position = -position - 1;
+        long[] row = entries[from];
+        if(counts[from] == row.length){
+            row = Arrays.copyOf(row, Math.max(4, row.length * 2));
+            entries[from] = row;
+        }
+        System.arraycopy(row, position, row, position + 1, counts[from] - position);
+        row[position] = entry;
+        ++counts[from];
+        ++size;
+        return true;
+    }
+
+    public boolean remove(int from, char low, char high, int to){
+        if(from >= counts.length){
+            return false;
+        }
+        int position = Arrays.binarySearch(entries[from], 0, counts[from], pack(low, high, to));
+        if(position < 0){
+            return false;
+        }
+        System.arraycopy(entries[from], position + 1, entries[from], position, counts[from] - position - 1);
+        --counts[from];
+        --size;
+        return true;
+    }
+
+    public boolean covers(int from, char symbol){
+        for(int i = 0; i < count(from) && low(from, i) <= symbol; ++i){
+            if(high(from, i) >= symbol){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean overlaps(int from){
+        int maximum = -1;
+        for(int i = 0; i < count(from); ++i){
+            if(low(from, i) <= maximum){
+                return true;
+            }
+            maximum = Math.max(maximum, high(from, i));
+        }
+        return false;
+    }
+
+    public void clearRow(int from){
+        if(from >= counts.length){
+            return;
+        }
+        size -= counts[from];
+        counts[from] = 0;
+        entries[from] = EMPTY;
+    }
+
+    public void retainTargets(boolean[] keep){
+        for(int from = 0; from < counts.length; ++from){
+            int kept = 0;
+            for(int i = 0; i < counts[from]; ++i){
+                int to = target(from, i);
+                if(to < keep.length && keep[to]){
+                    entries[from][kept++] = entries[from][i];
+                }
+            }
+            size -= counts[from] - kept;
+            counts[from] = kept;
+        }
+    }
+
+    public void removeTarget(int to){
+        for(int from = 0; from < counts.length; ++from){
+            int kept = 0;
+            for(int i = 0; i < counts[from]; ++i){
+                if(target(from, i) != to){
+                    entries[from][kept++] = entries[from][i];
+                }
+            }
+            size -= counts[from] - kept;
+            counts[from] = kept;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package automate;
+
+public final class Span {
+
+    private final int start;
+    private final int end;
+
+    public Span(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public int start(){
+        return start;
+    }
+
+    public int end(){
+        return end;
+    }
+
+    public int length(){
+        return end - start;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o){
+            return true;
+        }
+        if(!(o instanceof Span)){
+            return false;
+        }
+        Span other = (Span)o;
+        return start == other.start && end == other.end;
+    }
+
+    @Override
+    public int hashCode(){
+        return 31 * start + end;
+    }
+
+    @Override
+    public String toString(){
+        return "[" + start + ", " + end + ")";
+    }
+}
@@ -0,0 +1,47 @@
+package automate;
+
+final class SparseSet {
+
+    private final int[] dense;
+    private final int[] sparse;
+    private int size;
+
+    SparseSet(int capacity) {
+        dense = new int[capacity];
+        sparse = new int[capacity];
+    }
+
+    public int capacity(){
+        return dense.length;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public int get(int i){
+        return dense[i];
+    }
+
+    public boolean contains(int value){
+        int i = sparse[value];
+        return i < size && dense[i] == value;
+    }
+
+    public boolean add(int value){
+        if(contains(value)){
+            return false;
+        }
+        sparse[value] = size;
+        dense[size++] = value;
+        return true;
+    }
+
+    public void clear(){
+        size = 0;
+    }
+}
@@ -0,0 +1,157 @@
+package automate;
+
+final class StateIndex {
+
+    private static final int EMPTY = -1;
+
+    private final boolean offHeap;
+    private IntStorage keys;
+    private IntStorage values;
+    private int mask;
+    private IntStorage ids;
+    private IntStorage free;
+    private int freeCount;
+    private int top;
+    private int size;
+
+    StateIndex() {
+        this(false);
+    }
+
+    StateIndex(boolean offHeap) {
+        this.offHeap = offHeap;
+        keys = IntStorage.allocate(offHeap, 16);
+        values = IntStorage.allocate(offHeap, 16);
+        keys.fill(0, 16, EMPTY);
+        mask = 15;
+        ids = IntStorage.allocate(offHeap, 8);
+        free = IntStorage.allocate(offHeap, 8);
+    }
+
+    private static int hash(int id){
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public int indexOf(int id){
+        if(id < 0){
+            return -1;
+        }
+        int slot = hash(id) & mask;
+        int key;
+        while((key = keys.get(slot)) != EMPTY){
+            if(key == id){
+                return values.get(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean contains(int id){
+        return indexOf(id) >= 0;
+    }
+
+    public int add(int id){
+        if(id < 0 || contains(id)){
+            return -1;
+        }
+        if((size + 1) * 2 > keys.length()){
+            rehash(keys.length() * 2);
+        }
+        int index;
+        if(freeCount > 0){
+            index = free.get(--freeCount);
+        }else{
+            if(top == ids.length()){
+                ids = ids.copyOf(top * 2);
+            }
+            index = top++;
+        }
+        ids.set(index, id);
+        insert(id, index);
+        ++size;
+        return index;
+    }
+
+    public int remove(int id){
+        if(id < 0){
+            return -1;
+        }
+        int slot = hash(id) & mask;
+        while(keys.get(slot) != EMPTY && keys.get(slot) != id){
+            slot = (slot + 1) & mask;
+        }
+        if(keys.get(slot) == EMPTY){
+            return -1;
+        }
+        int index = values.get(slot);
+        keys.set(slot, EMPTY);
+        int next = (slot + 1) & mask;
+        while(keys.get(next) != EMPTY){
+            int home = hash(keys.get(next)) & mask;
+            if(((next - home) & mask) >= ((next - slot) & mask)){
+                keys.set(slot, keys.get(next));
+                values.set(slot, values.get(next));
+                keys.set(next, EMPTY);
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        ids.set(index, EMPTY);
+        if(freeCount == free.length()){
+            free = free.copyOf(freeCount * 2);
+        }
+        free.set(freeCount++, index);
+        --size;
+        return index;
+    }
+
+    public int idOf(int index){
+        return ids.get(index);
+    }
+
+    public boolean isLive(int index){
+        return index < top && ids.get(index) != EMPTY;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int capacity(){
+        return top;
+    }
+
+    public void close(){
+        keys.close();
+        values.close();
+        ids.close();
+        free.close();
+    }
+
+    private void insert(int id, int index){
+        int slot = hash(id) & mask;
+        while(keys.get(slot) != EMPTY){
+            slot = (slot + 1) & mask;
+        }
+        keys.set(slot, id);
+        values.set(slot, index);
+    }
+
+    private void rehash(int length){
+        IntStorage oldKeys = keys;
+        IntStorage oldValues = values;
+        keys = IntStorage.allocate(offHeap, length);
+        values = IntStorage.allocate(offHeap, length);
+        keys.fill(0, length, EMPTY);
+        mask = length - 1;
+        for(int i = 0; i < oldKeys.length(); ++i){
+            if(oldKeys.get(i) != EMPTY){
+                insert(oldKeys.get(i), oldValues.get(i));
+            }
+        }
+        oldKeys.close();
+        oldValues.close();
+    }
+}
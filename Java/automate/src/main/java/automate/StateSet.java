@@ -0,0 +1,152 @@
+package automate;
+
+import java.util.Arrays;
+
+public final class StateSet {
+
+    private long[] words;
+
+    public StateSet() {
+        this(64);
+    }
+
+    public StateSet(int capacity) {
+        words = new long[Math.max(1, (capacity + 63) >>> 6)];
+    }
+
+    public boolean contains(int index){
+        int word = index >>> 6;
+        return index >= 0 && word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    public boolean add(int index){
+        int word = index >>> 6;
+        if(word >= words.length){
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        long bit = 1L << index;
+        if((words[word] & bit) != 0){
+            return false;
+        }
+        words[word] |= bit;
+        return true;
+    }
+
+    public boolean remove(int index){
+        if(!contains(index)){
+            return false;
+        }
+        words[index >>> 6] &= ~(1L << index);
+        return true;
+    }
+
+    public void clear(){
+        Arrays.fill(words, 0L);
+    }
+
+    public boolean isEmpty(){
+        for(long word : words){
+            if(word != 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size(){
+        int size = 0;
+        for(long word : words){
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    public int next(int from){
+        int word = from >>> 6;
+        if(word >= words.length){
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while(true){
+            if(bits != 0){
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if(++word == words.length){
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    public void or(StateSet other){
+        if(other.words.length > words.length){
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for(int i = 0; i < other.words.length; ++i){
+            words[i] |= other.words[i];
+        }
+    }
+
+    public boolean intersects(StateSet other){
+        int length = Math.min(words.length, other.words.length);
+        for(int i = 0; i < length; ++i){
+            if((words[i] & other.words[i]) != 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void copyFrom(StateSet other){
+        if(other.words.length > words.length){
+            words = new long[other.words.length];
+        }
+        System.arraycopy(other.words, 0, words, 0, other.words.length);
+        Arrays.fill(words, other.words.length, words.length, 0L);
+    }
+
+    void copyFrom(long[] source, int offset, int length){
+        if(length > words.length){
+            words = new long[length];
+        }
+        System.arraycopy(source, offset, words, 0, length);
+        Arrays.fill(words, length, words.length, 0L);
+    }
+
+    long[] words(){
+        return words;
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o){
+            return true;
+        }
+        if(!(o instanceof StateSet)){
+            return false;
+        }
+        long[] others = ((StateSet)o).words;
+        int length = Math.max(words.length, others.length);
+        for(int i = 0; i < length; ++i){
+            long word = i < words.length ? words[i] : 0L;
+            long other = i < others.length ? others[i] : 0L;
+            if(word != other){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode(){
+        int last = words.length - 1;
+        while(last >= 0 && words[last] == 0){
+            --last;
+        }
+        long h = 1234;
+        for(int i = last; i >= 0; --i){
+            h ^= words[i] * (i + 1);
+        }
+        return (int)((h >> 32) ^ h);
+    }
+}
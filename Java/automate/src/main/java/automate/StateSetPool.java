@@ -0,0 +1,95 @@
+package automate;
+
+import java.util.Arrays;
+
+final class StateSetPool {
+
+    private static final int EMPTY = -1;
+
+    private final int stride;
+    private long[] arena;
+    private int[] hashes;
+    private int[] table;
+    private int mask;
+    private int size;
+
+    StateSetPool(int capacity) {
+        stride = Math.max(1, (capacity + 63) >>> 6);
+        arena = new long[stride * 16];
+        hashes = new int[16];
+        table = new int[32];
+        Arrays.fill(table, EMPTY);
+        mask = 31;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int intern(StateSet set){
+        long[] words = set.words();
+        int hash = hash(words);
+        int slot = hash & mask;
+        int id;
+        while((id = table[slot]) != EMPTY){
+            if(hashes[id] == hash && matches(id, words)){
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if(size == hashes.length){
+            arena = Arrays.copyOf(arena, arena.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        id = size++;
+        System.arraycopy(words, 0, arena, id * stride, Math.min(stride, words.length));
+        hashes[id] = hash;
+        table[slot] = id;
+        if(size * 2 > table.length){
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    public void load(int id, StateSet res){
+        res.copyFrom(arena, id * stride, stride);
+    }
+
+    private boolean matches(int id, long[] words){
+        int offset = id * stride;
+        for(int i = 0; i < stride; ++i){
+            if(arena[offset + i] != (i < words.length ? words[i] : 0L)){
+                return false;
+            }
+        }
+        for(int i = stride; i < words.length; ++i){
+            if(words[i] != 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(long[] words){
+        long h = 0;
+        int length = Math.min(stride, words.length);
+        for(int i = 0; i < length; ++i){
+            h = (h ^ words[i]) * 0x9E3779B97F4A7C15L;
+        }
+        h ^= h >>> 29;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    private void rehash(int length){
+        table = new int[length];
+        Arrays.fill(table, EMPTY);
+        mask = length - 1;
+        for(int id = 0; id < size; ++id){
+            int slot = hashes[id] & mask;
+            while(table[slot] != EMPTY){
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+}
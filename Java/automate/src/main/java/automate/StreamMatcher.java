@@ -0,0 +1,65 @@
+package automate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+final class StreamMatcher {
+
+    static final int BUFFER_CHARS = 1 << 13;
+
+    private final DfaTable dfa;
+    private final BitParallel parallel;
+    private final HybridMatcher hybrid;
+    private final long[] bits;
+    private CharBuffer buffer;
+
+    StreamMatcher(DfaTable dfa, BitParallel parallel, HybridMatcher hybrid) {
+        this.dfa = dfa;
+        this.parallel = parallel;
+        this.hybrid = hybrid;
+        bits = new long[2];
+    }
+
+    public boolean match(Reader in) throws IOException{
+        if(buffer == null){
+            buffer = CharBuffer.allocate(BUFFER_CHARS);
+        }
+        if(dfa != null){
+            int state = dfa.start();
+            while(fill(in)){
+                state = dfa.step(state, buffer);
+                if(state == DfaTable.DEAD){
+                    return false;
+                }
+            }
+            return dfa.isAccepting(state);
+        }
+        if(parallel != null){
+            parallel.start(bits);
+            while(fill(in)){
+                if(!parallel.step(bits, buffer)){
+                    return false;
+                }
+            }
+            return parallel.isAccepting(bits);
+        }
+        hybrid.start();
+        while(fill(in)){
+            if(!hybrid.step(buffer)){
+                return false;
+            }
+        }
+        return hybrid.isAccepting();
+    }
+
+    private boolean fill(Reader in) throws IOException{
+        buffer.clear();
+        int count;
+        do{
+            count = in.read(buffer);
+        }while(count == 0);
+        buffer.flip();
+        return count > 0;
+    }
+}
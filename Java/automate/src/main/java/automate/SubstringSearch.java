@@ -0,0 +1,107 @@
+package automate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+final class SubstringSearch {
+
+    private final LazyDfa forward;
+    private final LazyDfa anchored;
+    private final LazyDfa reverse;
+    private final StateSet threads;
+
+    SubstringSearch(LazyDfa forward, LazyDfa anchored, LazyDfa reverse, int rows) {
+        this.forward = forward;
+        this.anchored = anchored;
+        this.reverse = reverse;
+        threads = new StateSet(rows);
+    }
+
+    public Span find(CharSequence text, int from){
+        int i = from;
+        int state = forward.start();
+        while(!forward.isAccepting(state)){
+            if(i == text.length()){
+                return null;
+            }
+            state = forward.step(state, text.charAt(i++));
+        }
+        forward.load(state, threads);
+        state = anchored.enter(threads);
+        while(i < text.length() && !anchored.isDead(state)){
+            state = anchored.step(state, text.charAt(i++));
+        }
+        int limit = i;
+        int start = limit;
+        state = reverse.start();
+        for(i = limit - 1; i >= from; --i){
+            state = reverse.step(state, text.charAt(i));
+            if(reverse.isAccepting(state)){
+                start = i;
+            }
+        }
+        return new Span(start, longestEnd(text, start, limit));
+    }
+
+    public List<Span> findAll(CharSequence text){
+        BitSet starts = new BitSet(text.length() + 1);
+        int state = reverse.start();
+        if(reverse.isAccepting(state)){
+            starts.set(text.length());
+        }
+        for(int i = text.length() - 1; i >= 0; --i){
+            state = reverse.step(state, text.charAt(i));
+            if(reverse.isAccepting(state)){
+                starts.set(i);
+            }
+        }
+        List<Span> res = new ArrayList<>();
+        int[] trail = new int[text.length() + 1];
+        int[] last = new int[text.length() + 1];
+        Arrays.fill(trail, -1);
+        int flushes = anchored.flushes();
+        int start = starts.nextSetBit(0);
+        while(start >= 0){
+            int end = longestEnd(text, start, trail, last);
+            if(anchored.flushes() != flushes){
+                flushes = anchored.flushes();
+                Arrays.fill(trail, -1);
+                end = longestEnd(text, start, text.length());
+            }
+            res.add(new Span(start, end));
+            start = starts.nextSetBit(end == start ? end + 1 : end);
+        }
+        return res;
+    }
+
+    private int longestEnd(CharSequence text, int start, int limit){
+        int end = start;
+        int state = anchored.start();
+        for(int i = start; i < limit && !anchored.isDead(state); ++i){
+            state = anchored.step(state, text.charAt(i));
+            if(anchored.isAccepting(state)){
+                end = i + 1;
+            }
+        }
+        return end;
+    }
+
+    private int longestEnd(CharSequence text, int start, int[] trail, int[] last){
+        int i = start;
+        int state = anchored.start();
+        while(trail[i] != state){
+            trail[i] = state;
+            if(i == text.length() || anchored.isDead(state)){
+                last[i] = anchored.isAccepting(state) ? i : -1;
+                break;
+            }
+            state = anchored.step(state, text.charAt(i++));
+        }
+        for(int j = i - 1; j >= start; --j){
+            last[j] = last[j + 1] < 0 && anchored.isAccepting(trail[j]) ? j : last[j + 1];
+        }
+        return last[start];
+    }
+}
@@ -0,0 +1,277 @@
+package automate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+final class SymbolClasses {
+
+    static final int EPSILON = 0;
+    static final int NONE = -1;
+
+    private static final int PAGE = 256;
+    private static final char MISSING = 0xFFFF;
+
+    private final int[] points;
+    private final int[] intervalClasses;
+    private final char[][] pages;
+    private final char[] representatives;
+    private final int[] segmentOffsets;
+    private final char[] segmentLows;
+    private final char[] segmentHighs;
+
+    private SymbolClasses(int[] points, int[] intervalClasses, int count) {
+        this.points = points;
+        this.intervalClasses = intervalClasses;
+        representatives = new char[count + 1];
+        segmentOffsets = new int[count + 2];
+        int previous = NONE;
+        for(int i = 0; i < intervalClasses.length; ++i){
+            int symbolClass = intervalClasses[i];
+            if(symbolClass > EPSILON && symbolClass != previous){
+                ++segmentOffsets[symbolClass + 1];
+            }
+            previous = symbolClass;
+        }
+        for(int symbolClass = 0; symbolClass <= count; ++symbolClass){
+            segmentOffsets[symbolClass + 1] += segmentOffsets[symbolClass];
+        }
+        int[] cursor = Arrays.copyOf(segmentOffsets, count + 1);
+        segmentLows = new char[segmentOffsets[count + 1]];
+        segmentHighs = new char[segmentOffsets[count + 1]];
+        previous = NONE;
+        for(int i = 0; i < intervalClasses.length; ++i){
+            int symbolClass = intervalClasses[i];
+            if(symbolClass > EPSILON){
+                if(symbolClass != previous){
+                    if(cursor[symbolClass] == segmentOffsets[symbolClass]){
+                        representatives[symbolClass] = (char)points[i];
+                    }
+                    segmentLows[cursor[symbolClass]++] = (char)points[i];
+                }
+                segmentHighs[cursor[symbolClass] - 1] = (char)(points[i + 1] - 1);
+            }
+            previous = symbolClass;
+        }
+        pages = new char[PAGE][];
+        Map<Character, char[]> uniform = new HashMap<>();
+        for(int page = 0; page < PAGE; ++page){
+            int low = page * PAGE;
+            int interval = intervalOf(low);
+            if(points[interval + 1] >= low + PAGE){
+                char value = encode(intervalClasses[interval]);
+                char[] shared = uniform.get(value);
+                if(shared == null){
+                    shared = new char[PAGE];
+                    Arrays.fill(shared, value);
+                    uniform.put(value, shared);
+                }
+                pages[page] = shared;
+                continue;
+            }
+            pages[page] = new char[PAGE];
+            for(int symbol = low; symbol < low + PAGE; ++interval){
+                int end = Math.min(points[interval + 1], low + PAGE);
+                Arrays.fill(pages[page], symbol - low, end - low, encode(intervalClasses[interval]));
+                symbol = end;
+            }
+        }
+    }
+
+    private static char encode(int symbolClass){
+        return symbolClass == NONE ? MISSING : (char)symbolClass;
+    }
+
+    static SymbolClasses of(CompactTransitions compact, Alphabet alphabet){
+        return of(compact, alphabet, new RangeTable());
+    }
+
+    static SymbolClasses of(CompactTransitions compact, Alphabet alphabet, RangeTable ranges){
+        int[] cuts = new int[2 * alphabet.size() + 2 * ranges.size() + 3];
+        int cutCount = 0;
+        cuts[cutCount++] = 0;
+        cuts[cutCount++] = 1;
+        cuts[cutCount++] = 0x10000;
+        for(int symbol = alphabet.next(0); symbol >= 0; symbol = alphabet.next(symbol + 1)){
+            cuts[cutCount++] = symbol;
+            cuts[cutCount++] = symbol + 1;
+        }
+        for(int from = 0; from < ranges.rows(); ++from){
+            for(int i = 0; i < ranges.count(from); ++i){
+                cuts[cutCount++] = ranges.low(from, i);
+                cuts[cutCount++] = ranges.high(from, i) + 1;
+            }
+        }
+        Arrays.sort(cuts, 0, cutCount);
+        int pointCount = 0;
+        for(int i = 0; i < cutCount; ++i){
+            if(pointCount == 0 || cuts[pointCount - 1] != cuts[i]){
+                cuts[pointCount++] = cuts[i];
+            }
+        }
+        int[] points = Arrays.copyOf(cuts, pointCount);
+        int intervals = pointCount - 1;
+        int[] cover = new int[intervals + 1];
+        for(int from = 0; from < ranges.rows(); ++from){
+            for(int i = 0; i < ranges.count(from); ++i){
+                ++cover[Arrays.binarySearch(points, ranges.low(from, i))];
+                --cover[Arrays.binarySearch(points, ranges.high(from, i) + 1)];
+            }
+        }
+        int[] classOf = new int[intervals];
+        boolean empty = true;
+        for(int i = 0, depth = 0; i < intervals; ++i){
+            depth += cover[i];
+            boolean symbol = points[i + 1] - points[i] == 1 && alphabet.contains((char)points[i]);
+            classOf[i] = i > 0 && (depth > 0 || symbol) ? 0 : NONE;
+            empty &= classOf[i] == NONE;
+        }
+        int count = empty ? 0 : 1;
+        Map<Run, Integer> split = new HashMap<>();
+        long[] row = new long[16];
+        for(int from = 0; from < compact.rows(); ++from){
+            int size = 0;
+            for(int edge = compact.begin(from); edge < compact.end(from); ++edge){
+                if(compact.symbol(edge) == Automate.Epsilon){
+                    continue;
+                }
+                if(size == row.length){
+                    row = Arrays.copyOf(row, size * 2);
+                }
+                row[size++] = ((long)Arrays.binarySearch(points, compact.symbol(edge)) << 32) | compact.target(edge);
+            }
+            for(int i = 0; i < ranges.count(from); ++i){
+                int end = Arrays.binarySearch(points, ranges.high(from, i) + 1);
+                for(int interval = Arrays.binarySearch(points, ranges.low(from, i)); interval < end; ++interval){
+                    if(size == row.length){
+                        row = Arrays.copyOf(row, size * 2);
+                    }
+                    row[size++] = ((long)interval << 32) | ranges.target(from, i);
+                }
+            }
+            if(size == 0){
+                continue;
+            }
+            Arrays.sort(row, 0, size);
+            split.clear();
+            int edge = 0;
+            while(edge < size){
+                int interval = (int)(row[edge] >>> 32);
+                int runEnd = edge;
+                while(runEnd < size && (int)(row[runEnd] >>> 32) == interval){
+                    ++runEnd;
+                }
+                if(classOf[interval] != NONE){
+                    Run run = new Run(classOf[interval], row, edge, runEnd);
+                    Integer id = split.get(run);
+                    if(id == null){
+                        id = count++;
+                        split.put(run, id);
+                    }
+                    classOf[interval] = id;
+                }
+                edge = runEnd;
+            }
+        }
+        int[] renumber = new int[count];
+        Arrays.fill(renumber, NONE);
+        int next = 1;
+        for(int i = 0; i < intervals; ++i){
+            if(classOf[i] == NONE){
+                continue;
+            }
+            if(renumber[classOf[i]] == NONE){
+                renumber[classOf[i]] = next++;
+            }
+            classOf[i] = renumber[classOf[i]];
+        }
+        classOf[0] = EPSILON;
+        return new SymbolClasses(points, classOf, next - 1);
+    }
+
+    public int classOf(char symbol){
+        char value = pages[symbol >>> 8][symbol & 0xFF];
+        return value == MISSING ? NONE : value;
+    }
+
+    public int count(){
+        return representatives.length - 1;
+    }
+
+    public char representative(int symbolClass){
+        return representatives[symbolClass];
+    }
+
+    public int segmentBegin(int symbolClass){
+        return segmentOffsets[symbolClass];
+    }
+
+    public int segmentEnd(int symbolClass){
+        return segmentOffsets[symbolClass + 1];
+    }
+
+    public char segmentLow(int segment){
+        return segmentLows[segment];
+    }
+
+    public char segmentHigh(int segment){
+        return segmentHighs[segment];
+    }
+
+    public char intervalEnd(char symbol){
+        return (char)(points[intervalOf(symbol) + 1] - 1);
+    }
+
+    public int intervalOf(int symbol){
+        int position = Arrays.binarySearch(points, symbol);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    public int intervalClass(int interval){
+        return intervalClasses[interval];
+    }
+
+    public int[] mapping(){
+        int[] mapping = new int[128];
+        for(char symbol = 0; symbol < mapping.length; ++symbol){
+            mapping[symbol] = classOf(symbol);
+        }
+        return mapping;
+    }
+
+    private static final class Run {
+
+        private final int symbolClass;
+        private final int[] targets;
+        private final int hash;
+
+        Run(int symbolClass, long[] row, int begin, int end) {
+            this.symbolClass = symbolClass;
+            int[] distinct = new int[end - begin];
+            int count = 0;
+            int h = symbolClass;
+            for(int i = begin; i < end; ++i){
+                if(count == 0 || distinct[count - 1] != (int)row[i]){
+                    distinct[count++] = (int)row[i];
+                    h = h * 31 + (int)row[i];
+                }
+            }
+            targets = count == distinct.length ? distinct : Arrays.copyOf(distinct, count);
+            hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(!(o instanceof Run)){
+                return false;
+            }
+            Run other = (Run)o;
+            return symbolClass == other.symbolClass && Arrays.equals(targets, other.targets);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+    }
+}
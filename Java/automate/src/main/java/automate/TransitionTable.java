@@ -0,0 +1,253 @@
+package automate;
+
+import java.util.Arrays;
+
+final class TransitionTable {
+
+    static final int NONE = -1;
+
+    private final boolean offHeap;
+    private byte[] columns;
+    private char[] symbols;
+    private int[] columnSizes;
+    private int width;
+    private int rows;
+    private IntStorage heads;
+    private IntStorage targets;
+    private IntStorage nexts;
+    private int top;
+    private int freeEdge;
+    private int size;
+
+    TransitionTable() {
+        this(false);
+    }
+
+    TransitionTable(boolean offHeap) {
+        this.offHeap = offHeap;
+        columns = new byte[128];
+        Arrays.fill(columns, (byte)NONE);
+        symbols = new char[4];
+        columnSizes = new int[4];
+        heads = IntStorage.allocate(offHeap, 0);
+        targets = IntStorage.allocate(offHeap, 16);
+        nexts = IntStorage.allocate(offHeap, 16);
+        freeEdge = NONE;
+    }
+
+    public boolean isOffHeap(){
+        return offHeap;
+    }
+
+    public int column(char symbol){
+        return symbol < columns.length ? columns[symbol] : NONE;
+    }
+
+    public char symbolAt(int column){
+        return symbols[column];
+    }
+
+    public int width(){
+        return width;
+    }
+
+    public int rows(){
+        return rows;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int columnSize(char symbol){
+        int column = column(symbol);
+        return column == NONE ? 0 : columnSizes[column];
+    }
+
+    public int head(int from, int column){
+        return from < rows ? heads.get(from * width + column) : NONE;
+    }
+
+    public int next(int edge){
+        return nexts.get(edge);
+    }
+
+    public int target(int edge){
+        return targets.get(edge);
+    }
+
+    public void ensureRows(int count){
+        if(count <= rows){
+            return;
+        }
+        int newRows = Math.max(count, rows * 2);
+        heads = heads.copyOf(newRows * width);
+        heads.fill(rows * width, newRows * width, NONE);
+        rows = newRows;
+    }
+
+    public boolean contains(int from, char symbol, int to){
+        int column = column(symbol);
+        if(column == NONE){
+            return false;
+        }
+        for(int edge = head(from, column); edge != NONE; edge = nexts.get(edge)){
+            if(targets.get(edge) == to){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(int from, char symbol, int to){
+        if(contains(from, symbol, to)){
+            return false;
+        }
+        append(from, symbol, to);
+        return true;
+    }
+
+    void append(int from, char symbol, int to){
+        int column = ensureColumn(symbol);
+        int edge = allocate();
+        int cell = from * width + column;
+        targets.set(edge, to);
+        nexts.set(edge, heads.get(cell));
+        heads.set(cell, edge);
+        ++columnSizes[column];
+        ++size;
+    }
+
+    public boolean remove(int from, char symbol, int to){
+        int column = column(symbol);
+        if(column == NONE || from >= rows){
+            return false;
+        }
+        int cell = from * width + column;
+        int previous = NONE;
+        for(int edge = heads.get(cell); edge != NONE; previous = edge, edge = nexts.get(edge)){
+            if(targets.get(edge) == to){
+                unlink(cell, previous, edge, column);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void removeEdges(int from, int to){
+        if(from >= rows){
+            return;
+        }
+        for(int column = 0; column < width; ++column){
+            int cell = from * width + column;
+            int previous = NONE;
+            int edge = heads.get(cell);
+            while(edge != NONE){
+                int following = nexts.get(edge);
+                if(targets.get(edge) == to){
+                    unlink(cell, previous, edge, column);
+                }else{
+                    previous = edge;
+                }
+                edge = following;
+            }
+        }
+    }
+
+    public void clearRow(int from){
+        if(from >= rows){
+            return;
+        }
+        for(int column = 0; column < width; ++column){
+            int cell = from * width + column;
+            while(heads.get(cell) != NONE){
+                unlink(cell, NONE, heads.get(cell), column);
+            }
+        }
+    }
+
+    public void clearColumn(char symbol){
+        int column = column(symbol);
+        if(column == NONE){
+            return;
+        }
+        for(int from = 0; from < rows; ++from){
+            int cell = from * width + column;
+            while(heads.get(cell) != NONE){
+                unlink(cell, NONE, heads.get(cell), column);
+            }
+        }
+    }
+
+    public void removeTarget(int to){
+        for(int cell = 0; cell < rows * width; ++cell){
+            int previous = NONE;
+            int edge = heads.get(cell);
+            while(edge != NONE){
+                int following = nexts.get(edge);
+                if(targets.get(edge) == to){
+                    unlink(cell, previous, edge, cell % width);
+                }else{
+                    previous = edge;
+                }
+                edge = following;
+            }
+        }
+    }
+
+    public void close(){
+        heads.close();
+        targets.close();
+        nexts.close();
+    }
+
+    private void unlink(int cell, int previous, int edge, int column){
+        if(previous == NONE){
+            heads.set(cell, nexts.get(edge));
+        }else{
+            nexts.set(previous, nexts.get(edge));
+        }
+        nexts.set(edge, freeEdge);
+        freeEdge = edge;
+        --columnSizes[column];
+        --size;
+    }
+
+    private int allocate(){
+        if(freeEdge != NONE){
+            int edge = freeEdge;
+            freeEdge = nexts.get(edge);
+            return edge;
+        }
+        if(top == targets.length()){
+            targets = targets.copyOf(top * 2);
+            nexts = nexts.copyOf(top * 2);
+        }
+        return top++;
+    }
+
+    int ensureColumn(char symbol){
+        int column = columns[symbol];
+        if(column != NONE){
+            return column;
+        }
+        column = width;
+        if(column == symbols.length){
+            symbols = Arrays.copyOf(symbols, column * 2);
+            columnSizes = Arrays.copyOf(columnSizes, column * 2);
+        }
+        IntStorage newHeads = IntStorage.allocate(offHeap, rows * (width + 1));
+        for(int from = 0; from < rows; ++from){
+            for(int i = 0; i < width; ++i){
+                newHeads.set(from * (width + 1) + i, heads.get(from * width + i));
+            }
+            newHeads.set(from * (width + 1) + width, NONE);
+        }
+        heads.close();
+        heads = newHeads;
+        width = width + 1;
+        columns[symbol] = (byte)column;
+        symbols[column] = symbol;
+        return column;
+    }
+}
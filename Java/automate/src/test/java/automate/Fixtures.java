@@ -0,0 +1,51 @@
+package automate;
+
+import java.util.Random;
+
+import org.junit.Assert;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Automate nthFromEnd(int n){
+        Automate res = new Automate();
+        Assert.assertTrue(res.addSymbol('a'));
+        Assert.assertTrue(res.addSymbol('b'));
+        for(int i = 0; i <= n + 1; ++i){
+            Assert.assertTrue(res.addState(i));
+        }
+        Assert.assertTrue(res.addTransition(0, 'a', 0));
+        Assert.assertTrue(res.addTransition(0, 'b', 0));
+        Assert.assertTrue(res.addTransition(0, 'a', 1));
+        for(int i = 1; i <= n; ++i){
+            Assert.assertTrue(res.addTransition(i, 'a', i + 1));
+            Assert.assertTrue(res.addTransition(i, 'b', i + 1));
+        }
+        res.setStateInitial(0);
+        res.setStateFinal(n + 1);
+        return res;
+    }
+
+    static Automate random(int states, int edges, int epsilons){
+        Automate res = new Automate();
+        Assert.assertTrue(res.addSymbol('a'));
+        Assert.assertTrue(res.addSymbol('b'));
+        Random random = new Random(states);
+        for(int i = 0; i < states; ++i){
+            Assert.assertTrue(res.addState(i));
+        }
+        for(int i = 0; i < edges; ++i){
+            res.addTransition(random.nextInt(states), random.nextBoolean() ? 'a' : 'b', random.nextInt(states));
+        }
+        for(int i = 0; i < epsilons; ++i){
+            res.addTransition(random.nextInt(states), Automate.Epsilon, random.nextInt(states));
+        }
+        res.setStateInitial(0);
+        for(int i = 1; i < states; i += 5){
+            res.setStateFinal(i);
+        }
+        return res;
+    }
+}
@@ -0,0 +1,67 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testAlphabet {
+
+    Alphabet s;
+
+    @Before
+    public void setup(){
+        s = new Alphabet();
+    }
+
+    @Test
+    public void add_Empty(){
+        Assert.assertTrue(s.isEmpty());
+        Assert.assertEquals(s.size(), 0);
+        Assert.assertEquals(s.next(0), -1);
+        Assert.assertEquals(s.indexOf('a'), -1);
+        Assert.assertEquals(s.toArray().length, 0);
+    }
+
+    @Test
+    public void add_BothWords(){
+        Assert.assertTrue(s.add('!'));
+        Assert.assertTrue(s.add('?'));
+        Assert.assertTrue(s.add('@'));
+        Assert.assertTrue(s.add('~'));
+        Assert.assertFalse(s.add('~'));
+        Assert.assertFalse(s.add('\u00e9'));
+        Assert.assertEquals(s.size(), 4);
+        Assert.assertTrue(s.contains('?'));
+        Assert.assertTrue(s.contains('@'));
+        Assert.assertFalse(s.contains('A'));
+        Assert.assertFalse(s.contains('\u00e9'));
+        Assert.assertArrayEquals(s.toArray(), new char[]{'!', '?', '@', '~'});
+    }
+
+    @Test
+    public void indexOf_Dense(){
+        String symbols = "09AZaz";
+        for(char symbol : symbols.toCharArray()){
+            Assert.assertTrue(s.add(symbol));
+        }
+        for(int i = 0; i < symbols.length(); ++i){
+            Assert.assertEquals(s.indexOf(symbols.charAt(i)), i);
+            Assert.assertEquals(s.symbolAt(i), symbols.charAt(i));
+        }
+        Assert.assertTrue(s.remove('A'));
+        Assert.assertFalse(s.remove('A'));
+        Assert.assertEquals(s.indexOf('Z'), 2);
+        Assert.assertEquals(s.next('A'), 'Z');
+    }
+
+    @Test
+    public void getAlphabet_Automate(){
+        Automate a = new Automate();
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertEquals(a.getAlphabet().indexOf('b'), 1);
+        Assert.assertTrue(a.removeSymbol('a'));
+        Assert.assertEquals(a.getAlphabet().indexOf('b'), 0);
+        Assert.assertEquals(a.getAlphabet().size(), 1);
+    }
+}
@@ -1,6 +1,12 @@
 package automate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Assert;
@@ -436,6 +442,67 @@ public class testAutomate {
         Assert.assertEquals(a.countTransitions(), 4);
     }
 
+    @Test
+    public void removedState_WithPredecessorIndex(){
+        for(int i = 0; i < 5; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(0, 'a', 3));
+        a.setPredecessorIndex(true);
+        Assert.assertTrue(a.hasPredecessorIndex());
+        Assert.assertTrue(a.addTransition(1, 'b', 3));
+        Assert.assertTrue(a.addTransition(3, 'a', 3));
+        Assert.assertTrue(a.addTransition(3, Automate.Epsilon, 4));
+        Assert.assertTrue(a.addTransition(4, 'a', 4));
+        Assert.assertTrue(a.removeTransition(4, 'a', 4));
+
+        Assert.assertTrue(a.removeState(3));
+
+        Assert.assertFalse(a.hasState(3));
+        Assert.assertTrue(a.hasTransition(0, 'a', 1));
+        Assert.assertFalse(a.hasTransition(0, 'a', 3));
+        Assert.assertFalse(a.hasTransition(1, 'b', 3));
+        Assert.assertFalse(a.hasEpsilonTransition());
+        Assert.assertEquals(a.countTransitions(), 1);
+
+        Assert.assertTrue(a.addState(3));
+        Assert.assertTrue(a.addTransition(3, 'a', 1));
+        Assert.assertTrue(a.removeState(1));
+        Assert.assertEquals(a.countTransitions(), 0);
+
+        a.setPredecessorIndex(false);
+        Assert.assertFalse(a.hasPredecessorIndex());
+    }
+
+    @Test
+    public void removeNonCoAccessibleStates_WithPredecessorIndex(){
+        for(int i = 0; i < 5; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        a.setPredecessorIndex(true);
+        Assert.assertTrue(a.addSymbol('a'));
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, 'a', 2));
+        Assert.assertTrue(a.addTransition(1, 'a', 3));
+        Assert.assertTrue(a.addTransition(3, 'a', 4));
+        Assert.assertTrue(a.addTransition(4, 'a', 3));
+
+        a.removeNonCoAccessibleStates();
+
+        Assert.assertEquals(a.countStates(), 3);
+        Assert.assertFalse(a.hasState(3));
+        Assert.assertFalse(a.hasState(4));
+        Assert.assertEquals(a.countTransitions(), 2);
+        Assert.assertTrue(a.match("aa"));
+    }
+
     @Test
     public void hasState_Empty(){
         Assert.assertFalse(a.hasState(0));
@@ -850,6 +917,160 @@ public class testAutomate {
         Assert.assertEquals(a.countTransitions(), 1);
     }
 
+    @Test
+    public void addedTransition_SparseStates(){
+        Assert.assertTrue(a.addState(7));
+        Assert.assertTrue(a.addState(1 << 20));
+        Assert.assertTrue(a.addState(Integer.MAX_VALUE));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('~'));
+        Assert.assertTrue(a.addTransition(7, 'a', 1 << 20));
+        Assert.assertTrue(a.addTransition(1 << 20, '~', Integer.MAX_VALUE));
+        Assert.assertTrue(a.addTransition(Integer.MAX_VALUE, Automate.Epsilon, 7));
+
+        Assert.assertTrue(a.hasTransition(7, 'a', 1 << 20));
+        Assert.assertTrue(a.hasTransition(1 << 20, '~', Integer.MAX_VALUE));
+        Assert.assertTrue(a.hasTransition(Integer.MAX_VALUE, Automate.Epsilon, 7));
+        Assert.assertFalse(a.hasTransition(7, '~', 1 << 20));
+        Assert.assertEquals(a.countTransitions(), 3);
+    }
+
+    @Test
+    public void removedState_AddedAgain(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, 'a', 0));
+        Assert.assertTrue(a.removeState(0));
+        Assert.assertTrue(a.addState(2));
+
+        Assert.assertFalse(a.hasTransition(1, 'a', 2));
+        Assert.assertFalse(a.hasTransition(2, 'a', 1));
+        Assert.assertEquals(a.countTransitions(), 0);
+        Assert.assertTrue(a.addTransition(2, 'a', 1));
+        Assert.assertTrue(a.hasTransition(2, 'a', 1));
+        Assert.assertEquals(a.countTransitions(), 1);
+    }
+
+    @Test
+    public void compactStates_SparseIds(){
+        Assert.assertTrue(a.addState(1000));
+        Assert.assertFalse(a.addState(-5));
+        Assert.assertTrue(a.addState(42));
+        Assert.assertTrue(a.addState(7));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addTransition(1000, 'a', 42));
+        Assert.assertTrue(a.addTransition(42, 'a', 7));
+        a.setStateInitial(1000);
+        a.setStateFinal(7);
+
+        Map<Integer, Integer> mapping = a.compactStates(false);
+
+        Assert.assertEquals(mapping.size(), 3);
+        Assert.assertEquals(a.countStates(), 3);
+        Assert.assertTrue(a.hasState(0));
+        Assert.assertTrue(a.hasState(1));
+        Assert.assertTrue(a.hasState(2));
+        Assert.assertFalse(a.hasState(1000));
+        Assert.assertTrue(a.isStateInitial(mapping.get(1000)));
+        Assert.assertTrue(a.isStateFinal(mapping.get(7)));
+        Assert.assertTrue(a.hasTransition(mapping.get(1000), 'a', mapping.get(42)));
+        Assert.assertTrue(a.hasTransition(mapping.get(42), 'a', mapping.get(7)));
+        Assert.assertEquals(a.countTransitions(), 2);
+        Assert.assertTrue(a.match("aa"));
+    }
+
+    @Test
+    public void compactStates_BreadthFirst(){
+        Assert.assertTrue(a.addState(9));
+        Assert.assertTrue(a.addState(3));
+        Assert.assertTrue(a.addState(6));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addTransition(6, 'a', 3));
+        Assert.assertTrue(a.addTransition(3, 'b', 9));
+        a.setStateInitial(6);
+        a.setStateFinal(9);
+        a.setPredecessorIndex(true);
+
+        Map<Integer, Integer> mapping = a.compactStates(true);
+
+        Assert.assertEquals((int)mapping.get(6), 0);
+        Assert.assertEquals((int)mapping.get(3), 1);
+        Assert.assertEquals((int)mapping.get(9), 2);
+        Assert.assertEquals((int)mapping.get(1), 3);
+        Assert.assertTrue(a.isStateInitial(0));
+        Assert.assertTrue(a.isStateFinal(2));
+        Assert.assertTrue(a.hasTransition(0, 'a', 1));
+        Assert.assertTrue(a.hasTransition(1, 'b', 2));
+        Assert.assertTrue(a.match("ab"));
+        Assert.assertTrue(a.removeState(1));
+        Assert.assertEquals(a.countTransitions(), 0);
+    }
+
+    @Test
+    public void writeTo_RoundTrip() throws IOException{
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('~'));
+        Assert.assertTrue(a.addState(3));
+        Assert.assertTrue(a.addState(1000000));
+        Assert.assertTrue(a.addState(7));
+        Assert.assertTrue(a.addTransition(3, 'a', 7));
+        Assert.assertTrue(a.addTransition(3, '~', 1000000));
+        Assert.assertTrue(a.addTransition(7, Automate.Epsilon, 3));
+        Assert.assertTrue(a.addTransition(1000000, 'a', 'z', 3));
+        Assert.assertTrue(a.addTransition(1000000, '\u4e00', '\u9fff', 1000000));
+        a.setStateInitial(3);
+        a.setStateFinal(7);
+        a.setStateFinal(1000000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        a.writeTo(out);
+        Automate b = Automate.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        Assert.assertArrayEquals(b.getAlphabet().toArray(), a.getAlphabet().toArray());
+        Assert.assertEquals(b.countStates(), 3);
+        Assert.assertEquals(b.countTransitions(), 5);
+        Assert.assertTrue(b.isStateInitial(3));
+        Assert.assertFalse(b.isStateInitial(7));
+        Assert.assertTrue(b.isStateFinal(7));
+        Assert.assertTrue(b.isStateFinal(1000000));
+        Assert.assertTrue(b.hasTransition(7, Automate.Epsilon, 3));
+        Assert.assertTrue(b.hasTransition(3, '~', 1000000));
+        Assert.assertTrue(b.hasTransition(1000000, '\u4e00', '\u9fff', 1000000));
+        Assert.assertTrue(b.match("~\u4e2d"));
+        Assert.assertTrue(b.match("~qa"));
+        Assert.assertFalse(b.match("~A"));
+    }
+
+    @Test
+    public void readFrom_Invalid() throws IOException{
+        Assert.assertTrue(a.addState(0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        a.writeTo(out);
+        byte[] bytes = out.toByteArray();
+        try{
+            Automate.readFrom(new ByteArrayInputStream(bytes, 0, bytes.length - 1));
+            Assert.fail();
+        }catch(EOFException e){
+        }
+        bytes[4] = 9;
+        try{
+            Automate.readFrom(new ByteArrayInputStream(bytes));
+            Assert.fail();
+        }catch(IOException e){
+            Assert.assertEquals(e.getMessage(), "Unsupported automate format version 9");
+        }
+        bytes[0] = 0;
+        try{
+            Automate.readFrom(new ByteArrayInputStream(bytes));
+            Assert.fail();
+        }catch(IOException e){
+            Assert.assertEquals(e.getMessage(), "Not an automate stream");
+        }
+    }
+
     @Test
     public void prettyPrint_Test(){
         for(int i = 0; i < 5; ++i){
@@ -878,6 +1099,36 @@ public class testAutomate {
         a.prettyPrint();
     }
 
+    @Test
+    public void prettyPrint_Format() throws IOException{
+        Assert.assertTrue(a.addState(2));
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addTransition(0, 'a', 2));
+        Assert.assertTrue(a.addTransition(0, 'a', 0));
+        Assert.assertTrue(a.addTransition(2, Automate.Epsilon, 0));
+        Assert.assertTrue(a.addTransition(2, '\u00e0', '\u00ff', 2));
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+        StringBuilder out = new StringBuilder();
+        a.prettyPrint(out);
+
+        Assert.assertEquals(out.toString(),
+            "Alphabet\n\ta b \n" +
+            "Initial states\n\t0 \n" +
+            "Final states\n\t2 \n" +
+            "Transitions:\n" +
+            "\tFor state 0:\n" +
+            "\t\tFor letter a: 0 2 \n" +
+            "\t\tFor letter b: \n" +
+            "\tFor state 2:\n" +
+            "\t\tFor letter a: \n" +
+            "\t\tFor letter b: \n" +
+            "\t\tFor epsilon: 0 \n" +
+            "\t\tFor range 00E0-00FF: 2 \n");
+    }
+
     @Test
     public void hasEpsilonTransition_WithoutEpsilon(){
         Assert.assertTrue(a.addState(0));
@@ -1713,6 +1964,29 @@ public class testAutomate {
         Assert.assertTrue(equivalent(a, b));
     }
 
+    @Test
+    public void createMirror_EpsilonAndRanges(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addState(2));
+        Assert.assertTrue(a.addSymbol('a'));
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, Automate.Epsilon, 2));
+        Assert.assertTrue(a.addTransition(2, 'c', 'd', 2));
+
+        Automate b = Automate.createMirror(a);
+
+        Assert.assertTrue(b.isStateInitial(2));
+        Assert.assertTrue(b.isStateFinal(0));
+        Assert.assertTrue(b.hasTransition(2, 'c', 'd', 2));
+        Assert.assertTrue(b.match("a"));
+        Assert.assertTrue(b.match("dca"));
+        Assert.assertFalse(b.match("acd"));
+        Assert.assertTrue(a.match("acd"));
+    }
+
     @Test
     public void createMirror_Empty(){
         Assert.assertTrue(a.addState(0));
@@ -1835,6 +2109,27 @@ public class testAutomate {
         Assert.assertTrue(equivalentMirror(a, b));
     }
 
+    @Test
+    public void makeTransition_InPlace(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addState(2));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, Automate.Epsilon, 2));
+        Set<Integer> origin = new HashSet<>(), attend = new HashSet<>();
+        origin.add(0);
+        attend.add(1);
+        attend.add(2);
+        StateSet set = a.createStateSet(origin);
+        a.makeTransition(set, 'a', set);
+        Assert.assertEquals(a.toStates(set), attend);
+        FrozenAutomate frozen = a.freeze();
+        StateSet frozenSet = frozen.createStateSet(origin);
+        frozen.makeTransition(frozenSet, 'a', frozenSet);
+        Assert.assertEquals(frozen.toStates(frozenSet), attend);
+    }
+
     @Test
     public void makeTransition_NoTransition(){
         Assert.assertTrue(a.addState(0));
@@ -1942,6 +2237,192 @@ public class testAutomate {
         Assert.assertEquals(res, attend);
     }
 
+    @Test
+    public void makeTransition_StateSet(){
+        for(int i = 0; i < 5; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(0, 'a', 2));
+        Assert.assertTrue(a.addTransition(1, 'a', 3));
+        Assert.assertTrue(a.addTransition(1, 'b', 4));
+        Assert.assertTrue(a.addTransition(2, 'a', 3));
+
+        Set<Integer> origin = new HashSet<>(), attend = new HashSet<>();
+        origin.add(0); origin.add(1);
+        attend.add(1); attend.add(2); attend.add(3);
+
+        StateSet res = a.createStateSet();
+        a.makeTransition(a.createStateSet(origin), 'a', res);
+        Assert.assertEquals(a.toStates(res), attend);
+        Assert.assertEquals(a.toStates(res), a.makeTransition(origin, 'a'));
+
+        a.makeTransition(a.createStateSet(origin), 'c', res);
+        Assert.assertTrue(res.isEmpty());
+    }
+
+    @Test
+    public void readString_StateSet(){
+        for(int i = 0; i < 3; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+
+        Assert.assertTrue(a.addTransition(0, 'a', 0));
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, 'b', 2));
+
+        StateSet res = a.createStateSet();
+        a.readString("aab", res);
+        Assert.assertEquals(a.toStates(res), a.readString("aab"));
+        Assert.assertTrue(a.hasFinalState(res));
+        a.readString("aa", res);
+        Assert.assertFalse(a.hasFinalState(res));
+        Assert.assertEquals(res.size(), 2);
+        a.readString("ac", res);
+        Assert.assertTrue(res.isEmpty());
+    }
+
+    @Test
+    public void readString_EpsilonCycle(){
+        for(int i = 0; i < 4; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addTransition(0, Automate.Epsilon, 1));
+        Assert.assertTrue(a.addTransition(1, Automate.Epsilon, 0));
+        Assert.assertTrue(a.addTransition(1, 'a', 2));
+        Assert.assertTrue(a.addTransition(2, Automate.Epsilon, 3));
+        Assert.assertTrue(a.addTransition(3, 'b', 0));
+        a.setStateInitial(0);
+        a.setStateFinal(3);
+
+        Assert.assertEquals(a.readString(""), new HashSet<>(Arrays.asList(0, 1)));
+        Assert.assertTrue(a.match("a"));
+        Assert.assertTrue(a.match("aba"));
+        Assert.assertFalse(a.match("ab"));
+        Assert.assertFalse(a.isLanguageEmpty());
+        Assert.assertTrue(a.removeTransition(2, Automate.Epsilon, 3));
+        Assert.assertFalse(a.match("a"));
+        Assert.assertTrue(a.isLanguageEmpty());
+    }
+
+    @Test
+    public void readString_Ranges(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addTransition(0, 'a', 'z', 0));
+        Assert.assertTrue(a.addTransition(0, '\u0100', '\uFFFF', 1));
+        Assert.assertFalse(a.addTransition(0, 'z', 'a', 1));
+        Assert.assertFalse(a.addTransition(0, Automate.Epsilon, 'a', 1));
+        Assert.assertFalse(a.addTransition(0, 'a', 'z', 0));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+
+        Assert.assertTrue(a.isValid());
+        Assert.assertTrue(a.hasTransition(0, 'a', 'z', 0));
+        Assert.assertEquals(a.countTransitions(), 2);
+        Assert.assertTrue(a.isDeterministic());
+        Assert.assertTrue(a.match("hello\u4e2d"));
+        Assert.assertTrue(a.match("\uFFFF"));
+        Assert.assertFalse(a.match("Hello\u4e2d"));
+        Assert.assertFalse(a.match("hello"));
+        Assert.assertTrue(a.removeTransition(0, '\u0100', '\uFFFF', 1));
+        Assert.assertTrue(a.isLanguageEmpty());
+    }
+
+    @Test
+    public void createDeterministic_OverlappingRanges(){
+        for(int i = 0; i < 3; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Assert.assertTrue(a.addSymbol('q'));
+        Assert.assertTrue(a.addTransition(0, 'a', 'z', 1));
+        Assert.assertTrue(a.addTransition(0, 'm', '\u00ff', 2));
+        Assert.assertTrue(a.addTransition(1, 'q', 1));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        a.setStateFinal(2);
+        Assert.assertFalse(a.isDeterministic());
+
+        Automate dfa = Automate.createDeterministic(a);
+        Assert.assertTrue(dfa.isDeterministic());
+        Assert.assertEquals(dfa.countStates(), 4);
+        Assert.assertTrue(dfa.match("b"));
+        Assert.assertTrue(dfa.match("q"));
+        Assert.assertTrue(dfa.match("qqq"));
+        Assert.assertTrue(dfa.match("\u00e9"));
+        Assert.assertFalse(dfa.match("\u00e9q"));
+        Assert.assertTrue(dfa.match("bq"));
+        Assert.assertFalse(dfa.match("qb"));
+        Assert.assertFalse(dfa.match("A"));
+
+        Automate min = Automate.createMinimalMoore(a);
+        Assert.assertTrue(min.match("qqq"));
+        Assert.assertTrue(min.match("\u00e9"));
+        Assert.assertFalse(min.match("qb"));
+    }
+
+    @Test
+    public void createIntersection_Ranges(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addTransition(0, 'a', 'p', 1));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        Automate b = new Automate();
+        Assert.assertTrue(b.addState(0));
+        Assert.assertTrue(b.addState(1));
+        Assert.assertTrue(b.addTransition(0, 'k', 'z', 1));
+        b.setStateInitial(0);
+        b.setStateFinal(1);
+
+        Automate c = Automate.createIntersection(a, b);
+        Assert.assertTrue(c.match("k"));
+        Assert.assertTrue(c.match("p"));
+        Assert.assertFalse(c.match("a"));
+        Assert.assertFalse(c.match("z"));
+        Assert.assertTrue(c.isIncludedIn(a));
+        Assert.assertTrue(c.isIncludedIn(b));
+        Assert.assertFalse(a.isIncludedIn(c));
+    }
+
+    @Test
+    public void match_DeterministicAfterChanges(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        Assert.assertTrue(a.isDeterministic());
+        Assert.assertTrue(a.match("a"));
+        Assert.assertFalse(a.match(""));
+
+        a.setStateFinal(0);
+        Assert.assertTrue(a.match(""));
+        Assert.assertTrue(a.addTransition(0, 'a', 0));
+        Assert.assertFalse(a.isDeterministic());
+        Assert.assertTrue(a.match("aaa"));
+        a.setStateInitial(1);
+        Assert.assertTrue(a.removeTransition(0, 'a', 0));
+        Assert.assertTrue(a.match(""));
+        Assert.assertFalse(a.match("aa"));
+        Assert.assertTrue(a.removeState(0));
+        Assert.assertTrue(a.match(""));
+        Assert.assertFalse(a.match("a"));
+    }
+
     @Test
     public void readString_NotInAlphabetWithFinalAndInitialState(){
         for(int i = 0; i < 5; ++i){
@@ -2656,6 +3137,102 @@ public class testAutomate {
         Assert.assertEquals(a.countTransitions(), 1);
     }
 
+    @Test
+    public void removeNonCoAccessibleStates_ManyRanges(){
+        Assert.assertTrue(a.addState(0));
+        a.setStateInitial(0);
+        for(int i = 0; i < 200; ++i){
+            char symbol = (char)(0x100 + 2 * i);
+            Assert.assertTrue(a.addState(i + 1));
+            Assert.assertTrue(a.addTransition(0, symbol, symbol, i + 1));
+            if(i % 2 == 0){
+                a.setStateFinal(i + 1);
+            }
+        }
+        Assert.assertTrue(a.freeze().classes().count() > 128);
+
+        a.removeNonCoAccessibleStates();
+
+        Assert.assertEquals(a.countStates(), 101);
+        Assert.assertTrue(a.hasState(1));
+        Assert.assertFalse(a.hasState(2));
+        Assert.assertTrue(a.match("\u0100"));
+        Assert.assertTrue(a.match("\u0104"));
+        Assert.assertFalse(a.match("\u0102"));
+    }
+
+    @Test
+    public void removeState_RangesWithPredecessorIndex(){
+        for(int i = 0; i < 4; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Assert.assertTrue(a.addTransition(0, '\u0100', '\u0110', 1));
+        a.setPredecessorIndex(true);
+        Assert.assertTrue(a.addTransition(1, '\u0100', '\u0110', 2));
+        Assert.assertTrue(a.addTransition(2, '\u0100', '\u0110', 2));
+        Assert.assertTrue(a.addTransition(2, '\u0120', '\u0130', 3));
+        Assert.assertTrue(a.addTransition(3, '\u0100', '\u0110', 1));
+
+        Assert.assertTrue(a.removeState(2));
+
+        Assert.assertTrue(a.hasTransition(0, '\u0100', '\u0110', 1));
+        Assert.assertTrue(a.hasTransition(3, '\u0100', '\u0110', 1));
+        Assert.assertEquals(a.countTransitions(), 2);
+
+        a.compactStates(false);
+        Assert.assertTrue(a.removeState(1));
+        Assert.assertEquals(a.countTransitions(), 0);
+    }
+
+    @Test
+    public void removeNonCoAccessibleStates_RangesWithPredecessorIndex(){
+        for(int i = 0; i < 5; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        a.setPredecessorIndex(true);
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+        Assert.assertTrue(a.addTransition(0, '\u0100', '\u0110', 1));
+        Assert.assertTrue(a.addTransition(1, '\u0100', '\u0110', 2));
+        Assert.assertTrue(a.addTransition(1, '\u0100', '\u0110', 3));
+        Assert.assertTrue(a.addTransition(3, '\u0100', '\u0110', 4));
+        Assert.assertTrue(a.addTransition(4, '\u0100', '\u0110', 3));
+
+        a.removeNonCoAccessibleStates();
+
+        Assert.assertEquals(a.countStates(), 3);
+        Assert.assertEquals(a.countTransitions(), 2);
+        Assert.assertTrue(a.match("\u0100\u0105"));
+        Assert.assertTrue(a.addState(3));
+        Assert.assertTrue(a.addTransition(1, '\u0100', '\u0110', 3));
+        Assert.assertTrue(a.removeState(1));
+        Assert.assertEquals(a.countTransitions(), 0);
+    }
+
+    @Test(timeout = 10000)
+    public void removeNonCoAccessibleStates_LongChainWithPredecessorIndex(){
+        int length = 200000;
+        Assert.assertTrue(a.addSymbol('a'));
+        for(int i = 0; i < length; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        a.setPredecessorIndex(true);
+        for(int i = 0; i + 1 < length; ++i){
+            Assert.assertTrue(a.addTransition(i, 'a', i + 1));
+        }
+        Assert.assertTrue(a.addTransition(0, '\u0100', '\u0110', 1));
+        a.setStateInitial(0);
+        a.setStateFinal(length / 2);
+
+        a.removeNonCoAccessibleStates();
+
+        Assert.assertEquals(a.countStates(), length / 2 + 1);
+        for(int i = length / 2 + 1; i < length; i += 1000){
+            Assert.assertTrue(a.removeState(i - length / 2));
+        }
+        Assert.assertFalse(a.hasState(length / 2 + 1));
+    }
+
     @Test
     public void removeNonCoAccessibleStates_NoTransition(){
         Assert.assertTrue(a.addState(0));
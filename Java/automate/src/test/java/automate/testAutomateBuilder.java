@@ -0,0 +1,88 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testAutomateBuilder {
+
+    AutomateBuilder b;
+
+    @Before
+    public void setup(){
+        b = new AutomateBuilder();
+    }
+
+    @Test
+    public void build_Empty(){
+        Automate a = b.build();
+        Assert.assertFalse(a.isValid());
+        Assert.assertEquals(a.countStates(), 0);
+        Assert.assertEquals(a.countTransitions(), 0);
+    }
+
+    @Test
+    public void build_SameAsAddTransition(){
+        b.addSymbols('a', 'b', ' ', Automate.Epsilon);
+        b.addStates(30, 10, 20, 10, -1);
+        b.setStatesInitial(10, 99);
+        b.setStatesFinal(30);
+        b.addTransitions(new int[]{10, 20, 10, 20, 10, 20, 99}, new char[]{'a', 'b', 'a', Automate.Epsilon, 'c', ' ', 'a'}, new int[]{20, 30, 20, 10, 30, 30, 10});
+        b.addTransition(30, 'a', 30);
+        Automate a = b.build();
+
+        Assert.assertEquals(a.countSymbols(), 2);
+        Assert.assertEquals(a.countStates(), 3);
+        Assert.assertFalse(a.hasState(-1));
+        Assert.assertTrue(a.isStateInitial(10));
+        Assert.assertFalse(a.hasState(99));
+        Assert.assertTrue(a.isStateFinal(30));
+        Assert.assertEquals(a.countTransitions(), 4);
+        Assert.assertTrue(a.hasTransition(10, 'a', 20));
+        Assert.assertTrue(a.hasTransition(20, 'b', 30));
+        Assert.assertTrue(a.hasTransition(20, Automate.Epsilon, 10));
+        Assert.assertTrue(a.hasTransition(30, 'a', 30));
+        Assert.assertTrue(a.hasEpsilonTransition());
+        Assert.assertTrue(a.match("ab"));
+        Assert.assertTrue(a.match("aaab"));
+        Assert.assertFalse(a.match("b"));
+        Assert.assertTrue(a.removeTransition(10, 'a', 20));
+        Assert.assertFalse(a.match("ab"));
+        Assert.assertTrue(a.addTransition(10, 'b', 30));
+        Assert.assertTrue(a.match("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addTransitions_DifferentLength(){
+        b.addTransitions(new int[]{0, 1}, new char[]{'a'}, new int[]{1, 0});
+    }
+
+    @Test
+    public void freeze_Large(){
+        int count = 10000;
+        int[] from = new int[4 * count];
+        char[] symbol = new char[4 * count];
+        int[] to = new int[4 * count];
+        for(int i = 0; i < count; ++i){
+            b.addStates(i * 3);
+            for(int j = 0; j < 4; ++j){
+                from[4 * i + j] = i * 3;
+                symbol[4 * i + j] = (char)('a' + (j & 1));
+                to[4 * i + j] = ((i + 1) % count) * 3;
+            }
+        }
+        b.addSymbols('a', 'b');
+        b.setStatesInitial(0);
+        b.setStatesFinal(3 * (count - 1));
+        b.addTransitions(from, symbol, to);
+        FrozenAutomate f = b.freeze();
+
+        Assert.assertEquals(f.countStates(), count);
+        StringBuilder word = new StringBuilder();
+        for(int i = 0; i < count - 1; ++i){
+            word.append(i % 2 == 0 ? 'a' : 'b');
+        }
+        Assert.assertTrue(f.match(word.toString()));
+        Assert.assertFalse(f.match(word.substring(1)));
+    }
+}
@@ -0,0 +1,74 @@
+package automate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testBatchMatcher {
+
+    ForkJoinPool pool;
+    List<String> words;
+
+    @Before
+    public void setup(){
+        pool = new ForkJoinPool(4);
+        words = new ArrayList<>();
+        Random random = new Random(22);
+        for(int i = 0; i < 3 * BatchMatcher.BATCH + 17; ++i){
+            StringBuilder word = new StringBuilder();
+            int length = random.nextInt(12);
+            for(int j = 0; j < length; ++j){
+                word.append(random.nextBoolean() ? 'a' : 'b');
+            }
+            words.add(word.toString());
+        }
+    }
+
+    @After
+    public void teardown(){
+        pool.shutdown();
+    }
+
+    private BitSet expected(Automate a){
+        BitSet res = new BitSet();
+        for(int i = 0; i < words.size(); ++i){
+            res.set(i, a.match(words.get(i)));
+        }
+        return res;
+    }
+
+    @Test
+    public void matchAll_Engines(){
+        Automate[] automates = { Automate.createDeterministic(Fixtures.random(20, 60, 3)), Fixtures.random(40, 120, 5), Fixtures.random(400, 1600, 40) };
+        for(Automate a : automates){
+            FrozenAutomate frozen = a.freeze();
+            BitSet expected = expected(a);
+            Assert.assertEquals(frozen.matchAll(words, pool), expected);
+            Assert.assertEquals(frozen.matchAll(words.iterator(), pool), expected);
+            Assert.assertEquals(frozen.matchAll(words.stream()), expected);
+            Assert.assertEquals(a.matchAll(words), expected);
+        }
+    }
+
+    @Test
+    public void matchAll_LinkedList(){
+        Automate a = Fixtures.random(40, 120, 5);
+        Assert.assertEquals(a.freeze().matchAll(new LinkedList<>(words), pool), expected(a));
+    }
+
+    @Test
+    public void matchAll_Empty(){
+        FrozenAutomate frozen = Fixtures.random(40, 120, 5).freeze();
+        Assert.assertTrue(frozen.matchAll(Collections.<String>emptyList(), pool).isEmpty());
+        Assert.assertTrue(frozen.matchAll(Collections.<String>emptyIterator(), pool).isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package automate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testBinaryInput {
+
+    ByteArrayOutputStream bytes;
+    BinaryOutput out;
+
+    @Before
+    public void setup(){
+        bytes = new ByteArrayOutputStream();
+        out = new BinaryOutput(bytes);
+    }
+
+    private BinaryInput input() throws IOException{
+        out.flush();
+        return new BinaryInput(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void readVarint_Boundaries() throws IOException{
+        long[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1L, Long.MAX_VALUE};
+        for(long value : values){
+            out.writeVarint(value);
+        }
+        BinaryInput in = input();
+        for(long value : values){
+            Assert.assertEquals(in.readVarint(), value);
+        }
+    }
+
+    @Test
+    public void readVarint_Length(){
+        try{
+            out.writeVarint(127);
+            out.writeVarint(128);
+            out.flush();
+        }catch(IOException e){
+            Assert.fail();
+        }
+        Assert.assertEquals(bytes.size(), 3);
+    }
+
+    @Test
+    public void readSigned_Zigzag() throws IOException{
+        long[] values = {0, -1, 1, -64, 64, Long.MIN_VALUE, Long.MAX_VALUE};
+        for(long value : values){
+            out.writeSigned(value);
+        }
+        out.writeInt(0xCAFEBABE);
+        out.writeLong(0x0123456789ABCDEFL);
+        BinaryInput in = input();
+        for(long value : values){
+            Assert.assertEquals(in.readSigned(), value);
+        }
+        Assert.assertEquals(in.readInt(), 0xCAFEBABE);
+        Assert.assertEquals(in.readLong(), 0x0123456789ABCDEFL);
+    }
+
+    @Test(expected = EOFException.class)
+    public void readByte_End() throws IOException{
+        out.writeByte(1);
+        BinaryInput in = input();
+        in.readByte();
+        in.readByte();
+    }
+
+    @Test
+    public void writeByte_LargerThanBuffer() throws IOException{
+        for(int i = 0; i < 200000; ++i){
+            out.writeVarint(i);
+        }
+        BinaryInput in = input();
+        for(int i = 0; i < 200000; ++i){
+            Assert.assertEquals(in.readVarint(), i);
+        }
+    }
+}
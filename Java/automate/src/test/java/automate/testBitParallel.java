@@ -0,0 +1,129 @@
+package automate;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testBitParallel {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+    }
+
+    private BitParallel engine(){
+        FrozenAutomate frozen = a.freeze();
+        return BitParallel.of(frozen.classes(), frozen.transitions(), frozen.closure(), frozen.initialStates(), frozen.finalStates());
+    }
+
+    private void assertSameAsSets(BitParallel engine, int words, int maxLength){
+        FrozenAutomate frozen = a.freeze();
+        StateSet expected = frozen.createStateSet();
+        StateSet actual = frozen.createStateSet();
+        Random random = new Random(20);
+        for(int i = 0; i < words; ++i){
+            StringBuilder word = new StringBuilder();
+            for(int length = random.nextInt(maxLength); length > 0; --length){
+                word.append("aab".charAt(random.nextInt(3)));
+            }
+            frozen.transitions().read(frozen.classes(), frozen.closure(), frozen.initialStates(), word.toString(), expected);
+            engine.read(word, actual);
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(engine.match(word), frozen.hasFinalState(expected));
+        }
+    }
+
+    @Test
+    public void match_OneWord(){
+        a = Fixtures.nthFromEnd(20);
+        BitParallel engine = engine();
+        Assert.assertNotNull(engine);
+        Assert.assertTrue(engine.match("abbbbbbbbbbbbbbbbbbbb"));
+        Assert.assertFalse(engine.match("bbbbbbbbbbbbbbbbbbbbb"));
+        Assert.assertFalse(engine.match("abc"));
+        assertSameAsSets(engine, 500, 60);
+    }
+
+    @Test
+    public void match_TwoWords(){
+        a = Fixtures.nthFromEnd(100);
+        BitParallel engine = engine();
+        Assert.assertNotNull(engine);
+        assertSameAsSets(engine, 200, 300);
+        for(int i = 200; i < 230; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Assert.assertNull(engine());
+    }
+
+    @Test
+    public void match_NotHomogeneous(){
+        for(int i = 0; i < 70; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Random random = new Random(20);
+        for(int i = 0; i < 300; ++i){
+            a.addTransition(random.nextInt(70), random.nextBoolean() ? 'a' : 'b', random.nextInt(70));
+        }
+        a.setStateInitial(0);
+        a.setStateInitial(69);
+        for(int i = 0; i < 70; i += 7){
+            a.setStateFinal(i);
+        }
+        assertSameAsSets(engine(), 500, 30);
+    }
+
+    @Test
+    public void match_Epsilon(){
+        for(int i = 0; i < 80; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Random random = new Random(21);
+        for(int i = 0; i < 120; ++i){
+            a.addTransition(random.nextInt(80), random.nextBoolean() ? 'a' : 'b', random.nextInt(80));
+        }
+        for(int i = 0; i < 30; ++i){
+            a.addTransition(random.nextInt(80), Automate.Epsilon, random.nextInt(80));
+        }
+        a.setStateInitial(3);
+        a.setStateFinal(70);
+        a.setStateFinal(5);
+        assertSameAsSets(engine(), 500, 30);
+    }
+
+    @Test
+    public void match_LiveStates(){
+        a = Fixtures.nthFromEnd(198);
+        for(int i = 1; i < 199; i += 2){
+            Assert.assertTrue(a.removeState(i));
+        }
+        Assert.assertTrue(a.removeState(199));
+        Assert.assertTrue(a.addTransition(0, 'a', 2));
+        for(int i = 2; i < 198; i += 2){
+            Assert.assertTrue(a.addTransition(i, 'a', i + 2));
+        }
+        a.setStateFinal(198);
+        Assert.assertEquals(a.countStates(), 100);
+        Assert.assertNull(a.hybridMatcher());
+        FrozenAutomate frozen = a.freeze();
+        StateSet actual = a.createStateSet();
+        Random random = new Random(23);
+        for(int i = 0; i < 300; ++i){
+            StringBuilder word = new StringBuilder();
+            for(int length = random.nextInt(120); length > 0; --length){
+                word.append(random.nextInt(8) == 0 ? 'b' : 'a');
+            }
+            Assert.assertEquals(a.match(word.toString()), frozen.match(word.toString()));
+            a.readString(word.toString(), actual);
+            Assert.assertEquals(a.toStates(actual), frozen.readString(word.toString()));
+        }
+        Assert.assertTrue(a.match(new String(new char[99]).replace('\0', 'a')));
+        Assert.assertFalse(a.match(new String(new char[98]).replace('\0', 'a')));
+    }
+}
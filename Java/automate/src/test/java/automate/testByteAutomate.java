@@ -0,0 +1,136 @@
+package automate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testByteAutomate {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+    }
+
+    private static byte[] utf8(String word){
+        return word.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void match_Ascii(){
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addTransition(0, 'a', 0));
+        Assert.assertTrue(a.addTransition(0, 'b', 1));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        ByteAutomate b = a.compileUtf8();
+
+        Assert.assertEquals(b.countStates(), 2);
+        Assert.assertTrue(b.match(utf8("aab")));
+        Assert.assertTrue(b.match(utf8("b")));
+        Assert.assertFalse(b.match(utf8("")));
+        Assert.assertFalse(b.match(utf8("ba")));
+        Assert.assertTrue(b.match(utf8("xaabx"), 1, 3));
+    }
+
+    @Test
+    public void match_MultiByte(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addTransition(0, 'à', 'ÿ', 0));
+        Assert.assertTrue(a.addTransition(0, '一', '鿿', 1));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        ByteAutomate b = a.compileUtf8();
+
+        Assert.assertTrue(b.match(utf8("éè中")));
+        Assert.assertTrue(b.match(utf8("鿿")));
+        Assert.assertFalse(b.match(utf8("É中")));
+        Assert.assertFalse(b.match(utf8("é")));
+        Assert.assertFalse(b.match(new byte[]{(byte)0xC3}));
+        Assert.assertFalse(b.match(new byte[]{(byte)0xA9, (byte)0xE4, (byte)0xB8, (byte)0xAD}));
+    }
+
+    @Test
+    public void match_SurrogatePairs(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        Assert.assertTrue(a.addState(2));
+        Assert.assertTrue(a.addTransition(0, '\ud83d', '\ud83d', 1));
+        Assert.assertTrue(a.addTransition(1, '\ude00', '\ude4f', 2));
+        Assert.assertTrue(a.addTransition(2, 'a', 'z', 2));
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+        ByteAutomate b = a.compileUtf8();
+
+        Assert.assertTrue(b.match(utf8("😀ok")));
+        Assert.assertTrue(b.match(utf8("🙏")));
+        Assert.assertFalse(b.match(utf8("🙐")));
+        Assert.assertFalse(b.match(utf8("🈀")));
+        Assert.assertFalse(b.match(new byte[]{(byte)0xED, (byte)0xA0, (byte)0xBD}));
+    }
+
+    @Test
+    public void match_ByteBuffer(){
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addTransition(0, '\u0001', '￿', 0));
+        a.setStateInitial(0);
+        a.setStateFinal(0);
+        ByteAutomate b = a.compileUtf8();
+        byte[] word = utf8("xé中😀");
+        ByteBuffer direct = ByteBuffer.allocateDirect(word.length + 1);
+        direct.put((byte)'!').put(word).flip().position(1);
+        ByteBuffer heap = ByteBuffer.wrap(new byte[word.length + 1], 1, word.length).slice();
+        heap.put(word).flip();
+
+        Assert.assertTrue(b.match(direct));
+        Assert.assertTrue(b.match(heap));
+        Assert.assertEquals(direct.position(), 1);
+        Assert.assertFalse(b.match(ByteBuffer.wrap(new byte[]{(byte)0xC0, (byte)0x80})));
+        Assert.assertFalse(b.match(ByteBuffer.wrap(new byte[]{(byte)0xFF})));
+        Assert.assertFalse(b.match(ByteBuffer.wrap(new byte[]{0})));
+    }
+
+    @Test
+    public void match_SameAsString(){
+        Random random = new Random(14);
+        char[] pool = {'a', 'b', 'é', '߿', 'ࠀ', '中', '￿'};
+        for(int i = 0; i < 6; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        for(int i = 0; i < 14; ++i){
+            int from = random.nextInt(6);
+            int to = random.nextInt(6);
+            char low = pool[random.nextInt(pool.length)];
+            char high = pool[random.nextInt(pool.length)];
+            if(low == 'a' || low == 'b'){
+                a.addTransition(from, low, to);
+            }else{
+                a.addTransition(from, (char)Math.min(low, high), (char)Math.max(low, high), to);
+            }
+        }
+        a.addTransition(2, Automate.Epsilon, 4);
+        a.setStateInitial(0);
+        a.setStateInitial(3);
+        a.setStateFinal(4);
+        a.setStateFinal(5);
+        ByteAutomate b = a.compileUtf8();
+        for(int i = 0; i < 2000; ++i){
+            StringBuilder word = new StringBuilder();
+            for(int length = random.nextInt(6); length > 0; --length){
+                word.append(pool[random.nextInt(pool.length)]);
+            }
+            Assert.assertEquals(a.match(word.toString()), b.match(utf8(word.toString())));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testCompactTransitions {
+
+    TransitionTable table;
+
+    @Before
+    public void setup(){
+        table = new TransitionTable();
+        table.ensureRows(4);
+    }
+
+    @Test
+    public void of_Empty(){
+        CompactTransitions compact = CompactTransitions.of(table);
+        Assert.assertEquals(compact.rows(), 4);
+        Assert.assertEquals(compact.size(), 0);
+        for(int from = 0; from < 4; ++from){
+            Assert.assertEquals(compact.begin(from), compact.end(from));
+        }
+    }
+
+    @Test
+    public void of_SortedBySymbolThenTarget(){
+        Assert.assertTrue(table.add(0, 'b', 3));
+        Assert.assertTrue(table.add(0, 'a', 2));
+        Assert.assertTrue(table.add(0, 'b', 1));
+        Assert.assertTrue(table.add(0, Automate.Epsilon, 3));
+        Assert.assertTrue(table.add(2, 'a', 0));
+
+        CompactTransitions compact = CompactTransitions.of(table);
+        Assert.assertEquals(compact.size(), 5);
+        Assert.assertEquals(compact.end(0) - compact.begin(0), 4);
+        Assert.assertEquals(compact.symbol(0), Automate.Epsilon);
+        Assert.assertEquals(compact.target(0), 3);
+        Assert.assertEquals(compact.symbol(1), 'a');
+        Assert.assertEquals(compact.target(1), 2);
+        Assert.assertEquals(compact.symbol(2), 'b');
+        Assert.assertEquals(compact.target(2), 1);
+        Assert.assertEquals(compact.symbol(3), 'b');
+        Assert.assertEquals(compact.target(3), 3);
+        Assert.assertEquals(compact.begin(1), compact.end(1));
+        Assert.assertEquals(compact.end(2) - compact.begin(2), 1);
+    }
+
+    @Test
+    public void lowerBound_Symbol(){
+        for(int i = 0; i < 20; ++i){
+            Assert.assertTrue(table.add(1, (char)('a' + i), i % 4));
+        }
+
+        CompactTransitions compact = CompactTransitions.of(table);
+        int edge = compact.lowerBound(1, 'k');
+        Assert.assertEquals(compact.symbol(edge), 'k');
+        Assert.assertEquals(compact.target(edge), 2);
+        Assert.assertEquals(compact.lowerBound(1, '~'), compact.end(1));
+        Assert.assertEquals(compact.lowerBound(0, 'a'), compact.end(0));
+    }
+
+    @Test
+    public void reverse_Transposed(){
+        Assert.assertTrue(table.add(0, 'b', 3));
+        Assert.assertTrue(table.add(2, 'a', 3));
+        Assert.assertTrue(table.add(1, 'b', 3));
+        Assert.assertTrue(table.add(3, 'a', 0));
+
+        CompactTransitions reverse = CompactTransitions.of(table).reverse();
+        Assert.assertEquals(reverse.size(), 4);
+        Assert.assertEquals(reverse.end(3) - reverse.begin(3), 3);
+        int edge = reverse.begin(3);
+        Assert.assertEquals(reverse.symbol(edge), 'a');
+        Assert.assertEquals(reverse.target(edge), 2);
+        Assert.assertEquals(reverse.symbol(edge + 1), 'b');
+        Assert.assertEquals(reverse.target(edge + 1), 0);
+        Assert.assertEquals(reverse.symbol(edge + 2), 'b');
+        Assert.assertEquals(reverse.target(edge + 2), 1);
+        Assert.assertEquals(reverse.target(reverse.begin(0)), 3);
+    }
+}
@@ -0,0 +1,76 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testDfaTable {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+        for(int i = 0; i < 3; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, 'b', 0));
+        Assert.assertTrue(a.addTransition(1, 'c', 'z', 2));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+    }
+
+    private DfaTable table(){
+        FrozenAutomate frozen = a.freeze();
+        return DfaTable.of(frozen.classes(), frozen.transitions(), frozen.initialStates(), frozen.finalStates());
+    }
+
+    @Test
+    public void of_Deterministic(){
+        DfaTable table = table();
+        Assert.assertNotNull(table);
+        Assert.assertTrue(table.match("a"));
+        Assert.assertTrue(table.match("aba"));
+        Assert.assertFalse(table.match(""));
+        Assert.assertFalse(table.match("ab"));
+        Assert.assertFalse(table.match("ac"));
+        Assert.assertFalse(table.match("acb"));
+        Assert.assertFalse(table.match("b"));
+        Assert.assertFalse(table.match("A"));
+    }
+
+    @Test
+    public void of_EmptyWord(){
+        a.setStateFinal(0);
+        Assert.assertTrue(table().match(""));
+        Assert.assertTrue(table().match("ab"));
+    }
+
+    @Test
+    public void of_NotDeterministic(){
+        Assert.assertTrue(a.addTransition(1, 'b', 2));
+        Assert.assertNull(table());
+        Assert.assertTrue(a.removeTransition(1, 'b', 2));
+        Assert.assertNotNull(table());
+        Assert.assertTrue(a.addTransition(0, Automate.Epsilon, 2));
+        Assert.assertNull(table());
+        Assert.assertTrue(a.removeTransition(0, Automate.Epsilon, 2));
+        a.setStateInitial(2);
+        Assert.assertNull(table());
+    }
+
+    @Test
+    public void of_NoSymbols(){
+        Automate b = new Automate();
+        Assert.assertTrue(b.addState(0));
+        b.setStateInitial(0);
+        b.setStateFinal(0);
+        FrozenAutomate frozen = b.freeze();
+        DfaTable table = DfaTable.of(frozen.classes(), frozen.transitions(), frozen.initialStates(), frozen.finalStates());
+        Assert.assertTrue(table.match(""));
+        Assert.assertFalse(table.match("a"));
+    }
+}
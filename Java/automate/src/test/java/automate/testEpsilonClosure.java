@@ -0,0 +1,114 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testEpsilonClosure {
+
+    TransitionTable table;
+
+    @Before
+    public void setup(){
+        table = new TransitionTable();
+        table.ensureRows(6);
+    }
+
+    private StateSet close(int... states){
+        StateSet res = new StateSet(6);
+        for(int state : states){
+            res.add(state);
+        }
+        EpsilonClosure.of(CompactTransitions.of(table)).close(res);
+        return res;
+    }
+
+    @Test
+    public void of_NoEpsilon(){
+        Assert.assertTrue(table.add(0, 'a', 1));
+        Assert.assertTrue(EpsilonClosure.of(CompactTransitions.of(table)).isTrivial());
+        Assert.assertEquals(close(0).size(), 1);
+    }
+
+    @Test
+    public void close_Chain(){
+        Assert.assertTrue(table.add(0, Automate.Epsilon, 1));
+        Assert.assertTrue(table.add(1, Automate.Epsilon, 2));
+        Assert.assertTrue(table.add(2, 'a', 3));
+        Assert.assertTrue(table.add(3, Automate.Epsilon, 4));
+
+        StateSet res = close(0);
+        Assert.assertEquals(res.size(), 3);
+        Assert.assertTrue(res.contains(2));
+        Assert.assertFalse(res.contains(3));
+        Assert.assertEquals(close(3).size(), 2);
+        Assert.assertEquals(close(5).size(), 1);
+    }
+
+    @Test
+    public void close_Cycle(){
+        Assert.assertTrue(table.add(0, Automate.Epsilon, 1));
+        Assert.assertTrue(table.add(1, Automate.Epsilon, 2));
+        Assert.assertTrue(table.add(2, Automate.Epsilon, 0));
+        Assert.assertTrue(table.add(2, Automate.Epsilon, 3));
+        Assert.assertTrue(table.add(4, Automate.Epsilon, 1));
+
+        Assert.assertEquals(close(0).size(), 4);
+        Assert.assertEquals(close(1).size(), 4);
+        Assert.assertEquals(close(4).size(), 5);
+        Assert.assertEquals(close(3).size(), 1);
+    }
+
+    @Test
+    public void close_Diamond(){
+        Assert.assertTrue(table.add(0, Automate.Epsilon, 1));
+        Assert.assertTrue(table.add(0, Automate.Epsilon, 2));
+        Assert.assertTrue(table.add(1, Automate.Epsilon, 3));
+        Assert.assertTrue(table.add(2, Automate.Epsilon, 3));
+
+        StateSet res = close(0);
+        Assert.assertEquals(res.size(), 4);
+        Assert.assertFalse(res.contains(4));
+    }
+
+    @Test
+    public void close_Reused(){
+        Assert.assertTrue(table.add(0, Automate.Epsilon, 1));
+        Assert.assertTrue(table.add(0, Automate.Epsilon, 2));
+        Assert.assertTrue(table.add(1, Automate.Epsilon, 3));
+        Assert.assertTrue(table.add(2, Automate.Epsilon, 3));
+        Assert.assertTrue(table.add(4, Automate.Epsilon, 3));
+        EpsilonClosure closure = EpsilonClosure.of(CompactTransitions.of(table));
+        StateSet res = new StateSet(6);
+        for(int round = 0; round < 3; ++round){
+            res.clear();
+            res.add(0);
+            closure.close(res);
+            Assert.assertEquals(res.size(), 4);
+            res.clear();
+            res.add(4);
+            closure.close(res);
+            Assert.assertEquals(res.size(), 2);
+            Assert.assertTrue(res.contains(3));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void close_LongChain(){
+        int length = 200000;
+        Automate a = new Automate();
+        Assert.assertTrue(a.addSymbol('a'));
+        for(int i = 0; i < length; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        for(int i = 0; i + 1 < length; ++i){
+            Assert.assertTrue(a.addTransition(i, Automate.Epsilon, i + 1));
+        }
+        Assert.assertTrue(a.addTransition(length - 1, 'a', 0));
+        a.setStateInitial(0);
+        a.setStateFinal(length - 1);
+        Assert.assertTrue(a.match(""));
+        Assert.assertTrue(a.match("aaa"));
+        Assert.assertEquals(a.readString("").size(), length);
+    }
+}
@@ -0,0 +1,133 @@
+package automate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testFrozenAutomate {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+        for(int i = 0; i < 5; ++i){
+            Assert.assertTrue(a.addState(i * 10));
+        }
+
+        a.setStateInitial(0);
+        a.setStateInitial(10);
+        a.setStateFinal(10);
+        a.setStateFinal(40);
+
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+
+        Assert.assertTrue(a.addTransition(0, 'a', 10));
+        Assert.assertTrue(a.addTransition(0, 'a', 20));
+        Assert.assertTrue(a.addTransition(0, 'a', 30));
+        Assert.assertTrue(a.addTransition(10, 'b', 30));
+        Assert.assertTrue(a.addTransition(20, 'a', 30));
+        Assert.assertTrue(a.addTransition(20, 'b', 40));
+        Assert.assertTrue(a.addTransition(30, 'a', 30));
+        Assert.assertTrue(a.addTransition(30, 'b', 40));
+        Assert.assertTrue(a.addTransition(40, 'a', 40));
+    }
+
+    @Test
+    public void freeze_SameLanguage(){
+        FrozenAutomate f = a.freeze();
+        String[] words = {"", "a", "b", "ab", "aab", "aaba", "ba", "bb", "abc"};
+        for(String word : words){
+            Assert.assertEquals(f.match(word), a.match(word));
+            Assert.assertEquals(f.readString(word), a.readString(word));
+        }
+        Assert.assertEquals(f.countStates(), 5);
+        Assert.assertTrue(f.hasState(40));
+        Assert.assertFalse(f.hasState(4));
+        Assert.assertTrue(f.isStateInitial(10));
+        Assert.assertTrue(f.isStateFinal(40));
+        Assert.assertFalse(f.isStateFinal(30));
+    }
+
+    @Test
+    public void freeze_MakeTransition(){
+        FrozenAutomate f = a.freeze();
+        Set<Integer> origin = new HashSet<>();
+        origin.add(0);
+        origin.add(10);
+        Assert.assertEquals(f.makeTransition(origin, 'a'), a.makeTransition(origin, 'a'));
+        Assert.assertEquals(f.makeTransition(origin, 'b'), a.makeTransition(origin, 'b'));
+        Assert.assertTrue(f.makeTransition(origin, 'c').isEmpty());
+    }
+
+    @Test
+    public void freeze_IndependentOfLaterChanges(){
+        FrozenAutomate f = a.freeze();
+        Assert.assertTrue(a.removeState(40));
+        Assert.assertTrue(a.addTransition(0, 'b', 10));
+
+        Assert.assertTrue(f.match("ab"));
+        Assert.assertFalse(f.match("b"));
+        Assert.assertTrue(f.hasState(40));
+        Assert.assertTrue(a.match("b"));
+    }
+
+    @Test
+    public void isLanguageEmpty_Frozen(){
+        Assert.assertFalse(a.freeze().isLanguageEmpty());
+
+        Automate b = new Automate();
+        Assert.assertTrue(b.addState(0));
+        Assert.assertTrue(b.addState(1));
+        Assert.assertTrue(b.addSymbol('a'));
+        Assert.assertTrue(b.addTransition(1, 'a', 0));
+        b.setStateInitial(0);
+        b.setStateFinal(1);
+        Assert.assertTrue(b.freeze().isLanguageEmpty());
+    }
+
+    @Test
+    public void isIncludedIn_Frozen(){
+        Automate b = new Automate();
+        Assert.assertTrue(b.addState(0));
+        Assert.assertTrue(b.addSymbol('a'));
+        Assert.assertTrue(b.addSymbol('b'));
+        Assert.assertTrue(b.addTransition(0, 'a', 0));
+        Assert.assertTrue(b.addTransition(0, 'b', 0));
+        b.setStateInitial(0);
+        b.setStateFinal(0);
+
+        Assert.assertTrue(a.freeze().isIncludedIn(b.freeze()));
+        Assert.assertFalse(b.freeze().isIncludedIn(a.freeze()));
+        Assert.assertTrue(a.freeze().isIncludedIn(a.freeze()));
+    }
+
+    @Test
+    public void match_ConcurrentReaders() throws InterruptedException {
+        final FrozenAutomate f = a.freeze();
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for(int t = 0; t < threads.length; ++t){
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run(){
+                    for(int i = 0; i < 2000; ++i){
+                        if(!f.match("aab") || f.match("ba") || !f.match("") || f.match("aaa")){
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        Assert.assertEquals(errors.get(), 0);
+    }
+}
@@ -0,0 +1,107 @@
+package automate;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testLazyDfa {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+    }
+
+    private LazyDfa lazy(int cacheBytes){
+        FrozenAutomate frozen = a.freeze();
+        return new LazyDfa(frozen.classes(), frozen.transitions(), frozen.closure(), frozen.initialStates(), frozen.finalStates(), cacheBytes);
+    }
+
+    @Test
+    public void match_NthFromEnd(){
+        a = Fixtures.nthFromEnd(20);
+        LazyDfa lazy = lazy(LazyDfa.DEFAULT_CACHE_BYTES);
+        Random random = new Random(19);
+        StringBuilder word = new StringBuilder();
+        for(int i = 0; i < 5000; ++i){
+            word.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        for(int end = 21; end < word.length(); end += 97){
+            Assert.assertEquals(lazy.match(word.subSequence(0, end)), word.charAt(end - 21) == 'a');
+        }
+        Assert.assertFalse(lazy.match("c"));
+        Assert.assertFalse(lazy.match(""));
+    }
+
+    @Test
+    public void match_Flushes(){
+        a = Fixtures.nthFromEnd(12);
+        LazyDfa lazy = lazy(1024);
+        FrozenAutomate frozen = a.freeze();
+        StateSet expected = frozen.createStateSet();
+        StateSet actual = frozen.createStateSet();
+        Random random = new Random(19);
+        for(int i = 0; i < 300; ++i){
+            StringBuilder word = new StringBuilder();
+            for(int length = random.nextInt(40); length > 0; --length){
+                word.append(random.nextBoolean() ? 'a' : 'b');
+            }
+            frozen.transitions().read(frozen.classes(), frozen.closure(), frozen.initialStates(), word.toString(), expected);
+            lazy.read(word, actual);
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(lazy.match(word), frozen.hasFinalState(expected));
+        }
+        Assert.assertTrue(lazy.flushes() > 0);
+        Assert.assertTrue(lazy.cachedStates() * (8 + 4 * 2 + 16) <= 1024);
+    }
+
+    @Test
+    public void read_Epsilon(){
+        Assert.assertTrue(a.addSymbol('a'));
+        for(int i = 0; i < 3; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        Assert.assertTrue(a.addTransition(0, Automate.Epsilon, 1));
+        Assert.assertTrue(a.addTransition(1, 'a', 2));
+        Assert.assertTrue(a.addTransition(2, Automate.Epsilon, 0));
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+        LazyDfa lazy = lazy(LazyDfa.DEFAULT_CACHE_BYTES);
+        FrozenAutomate frozen = a.freeze();
+        StateSet res = frozen.createStateSet();
+
+        lazy.read("", res);
+        Assert.assertEquals(frozen.toStates(res).size(), 2);
+        lazy.read("aa", res);
+        Assert.assertEquals(frozen.toStates(res).size(), 3);
+        Assert.assertTrue(lazy.match("aaa"));
+        Assert.assertFalse(lazy.match(""));
+        lazy.read("ab", res);
+        Assert.assertTrue(res.isEmpty());
+    }
+
+    @Test
+    public void step_GivesUpPerSearch(){
+        a = Fixtures.nthFromEnd(200);
+        LazyDfa lazy = lazy(1 << 16);
+        Random random = new Random(19);
+        StringBuilder word = new StringBuilder();
+        for(int i = 0; i < 200000; ++i){
+            word.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        for(int round = 0; round < 3; ++round){
+            Assert.assertEquals(lazy.step(lazy.start(), word), LazyDfa.GAVE_UP);
+            Assert.assertTrue(lazy.resumeAt() > 0 && lazy.resumeAt() < word.length());
+            int state = lazy.step(lazy.start(), "ab");
+            Assert.assertNotEquals(state, LazyDfa.GAVE_UP);
+            Assert.assertFalse(lazy.isAccepting(state));
+            state = lazy.step(lazy.start(), word.subSequence(0, 500));
+            Assert.assertNotEquals(state, LazyDfa.GAVE_UP);
+            Assert.assertEquals(lazy.isAccepting(state), word.charAt(500 - 201) == 'a');
+        }
+        Assert.assertEquals(lazy.match(word), word.charAt(word.length() - 201) == 'a');
+    }
+}
@@ -0,0 +1,124 @@
+package automate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testLineScanner {
+
+    Automate a;
+    ByteAutomate bytes;
+    ForkJoinPool pool;
+    Path file;
+
+    @Before
+    public void setup() throws IOException{
+        a = new Automate();
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        a.addTransition(0, 'a', 1);
+        a.addTransition(0, '\u00E9', '\u00E9', 0);
+        a.addTransition(1, 'a', 0);
+        a.addTransition(1, '\u00E9', '\u00E9', 1);
+        a.setStateInitial(0);
+        a.setStateFinal(0);
+        bytes = a.compileUtf8();
+        pool = new ForkJoinPool(3);
+        file = Files.createTempFile("automate", ".log");
+    }
+
+    @After
+    public void teardown() throws IOException{
+        pool.shutdown();
+        Files.delete(file);
+    }
+
+    private long[] write(String... lines) throws IOException{
+        StringBuilder text = new StringBuilder();
+        List<Long> expected = new ArrayList<>();
+        long offset = 0;
+        for(String line : lines){
+            String content = line.endsWith("\r\n") ? line.substring(0, line.length() - 2) : line.endsWith("\n") ? line.substring(0, line.length() - 1) : line;
+            if(a.match(content)){
+                expected.add(offset);
+            }
+            text.append(line);
+            offset += line.getBytes(StandardCharsets.UTF_8).length;
+        }
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+        long[] res = new long[expected.size()];
+        for(int i = 0; i < res.length; ++i){
+            res[i] = expected.get(i);
+        }
+        return res;
+    }
+
+    private void check(long[] expected, int... windows) throws IOException{
+        for(int window : windows){
+            LineScanner scanner = new LineScanner(bytes, pool, window);
+            Assert.assertArrayEquals(scanner.find(file), expected);
+            Assert.assertEquals(scanner.count(file), expected.length);
+            List<Long> unordered = new ArrayList<>();
+            scanner.scan(file, false, unordered::add);
+            long[] sorted = new long[unordered.size()];
+            for(int i = 0; i < sorted.length; ++i){
+                sorted[i] = unordered.get(i);
+            }
+            Arrays.sort(sorted);
+            Assert.assertArrayEquals(sorted, expected);
+        }
+    }
+
+    @Test
+    public void find_Lines() throws IOException{
+        long[] expected = write("aa\n", "a\n", "\n", "\u00E9a\u00E9a\r\n", "ab\n", "a\u00E9\u00E9\r\n", "\r\n", "aaa\n", "aa");
+        Assert.assertArrayEquals(expected, new long[]{ 0, 5, 6, 24, 30 });
+        check(expected, 1, 2, 3, 7, LineScanner.DEFAULT_WINDOW);
+    }
+
+    @Test
+    public void find_Random() throws IOException{
+        Random random = new Random(24);
+        String[] lines = new String[2000];
+        for(int i = 0; i < lines.length; ++i){
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt(10) == 0 ? 200 + random.nextInt(300) : random.nextInt(8);
+            for(int j = 0; j < length; ++j){
+                int symbol = random.nextInt(20);
+                line.append(symbol == 0 ? '\r' : symbol == 1 ? 'b' : symbol < 10 ? 'a' : '\u00E9');
+            }
+            line.append(i == lines.length - 1 ? "" : random.nextBoolean() ? "\r\n" : "\n");
+            lines[i] = line.toString();
+        }
+        check(write(lines), 61, 4096, LineScanner.DEFAULT_WINDOW);
+    }
+
+    @Test
+    public void find_Empty() throws IOException{
+        check(write(), 1, LineScanner.DEFAULT_WINDOW);
+        check(write("\n"), 1, LineScanner.DEFAULT_WINDOW);
+        check(write("a"), 1, LineScanner.DEFAULT_WINDOW);
+        Assert.assertEquals(bytes.lineScanner().count(file), 0);
+    }
+
+    @Test
+    public void indexOfNewline_Words(){
+        byte[] text = "abcdefghijklmnop\nqrstuvwxyz\n".getBytes(StandardCharsets.US_ASCII);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(text).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(LineScanner.indexOfNewline(buffer, 0, text.length), 16);
+        Assert.assertEquals(LineScanner.indexOfNewline(buffer, 17, text.length), 27);
+        Assert.assertEquals(LineScanner.indexOfNewline(buffer, 17, 27), -1);
+    }
+}
@@ -0,0 +1,104 @@
+package automate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testMappedAutomate {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+        for(int i = 0; i < 4; ++i){
+            Assert.assertTrue(a.addState(i * 10));
+        }
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addTransition(0, 'a', 0));
+        Assert.assertTrue(a.addTransition(0, 'b', 0));
+        Assert.assertTrue(a.addTransition(0, 'a', 10));
+        Assert.assertTrue(a.addTransition(10, Automate.Epsilon, 20));
+        Assert.assertTrue(a.addTransition(20, 'b', 30));
+        Assert.assertTrue(a.addTransition(30, 'à', 'ÿ', 30));
+        a.setStateInitial(0);
+        a.setStateFinal(30);
+    }
+
+    private byte[] table() throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        a.writeTable(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void open_File() throws IOException{
+        Path path = Files.createTempFile("automate", ".table");
+        try{
+            try(OutputStream out = Files.newOutputStream(path)){
+                a.writeTable(out);
+            }
+            MappedAutomate m = MappedAutomate.open(path);
+            Assert.assertTrue(m.match("ab"));
+            Assert.assertTrue(m.match("bababéÿ"));
+            Assert.assertFalse(m.match("abc"));
+            Assert.assertFalse(m.match(""));
+            Assert.assertTrue(m.hasSymbol('é'));
+            Assert.assertFalse(m.hasSymbol('c'));
+        }finally{
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void match_SameAsAutomate() throws IOException{
+        byte[] bytes = table();
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        MappedAutomate m = MappedAutomate.of(direct);
+        Assert.assertEquals(m.countStates(), 4);
+        Random random = new Random(16);
+        char[] pool = {'a', 'b', 'é', 'c'};
+        for(int i = 0; i < 1000; ++i){
+            StringBuilder word = new StringBuilder();
+            for(int length = random.nextInt(7); length > 0; --length){
+                word.append(pool[random.nextInt(pool.length)]);
+            }
+            Assert.assertEquals(a.match(word.toString()), m.match(word));
+        }
+    }
+
+    @Test
+    public void of_Invalid() throws IOException{
+        byte[] bytes = table();
+        try{
+            MappedAutomate.of(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+            Assert.fail();
+        }catch(IOException e){
+            Assert.assertEquals(e.getMessage(), "Truncated automate table");
+        }
+        bytes[4] = 2;
+        try{
+            MappedAutomate.of(ByteBuffer.wrap(bytes));
+            Assert.fail();
+        }catch(IOException e){
+            Assert.assertEquals(e.getMessage(), "Unsupported automate table version 2");
+        }
+        bytes[0] = 0;
+        try{
+            MappedAutomate.of(ByteBuffer.wrap(bytes));
+            Assert.fail();
+        }catch(IOException e){
+            Assert.assertEquals(e.getMessage(), "Not an automate table");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package automate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testNfaSimulation {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        Random random = new Random(21);
+        for(int i = 0; i < 300; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        for(int i = 0; i < 1200; ++i){
+            a.addTransition(random.nextInt(300), random.nextBoolean() ? 'a' : 'b', random.nextInt(300));
+        }
+        for(int i = 0; i < 100; ++i){
+            a.addTransition(random.nextInt(300), Automate.Epsilon, random.nextInt(300));
+        }
+        a.setStateInitial(0);
+        a.setStateInitial(150);
+        for(int i = 0; i < 300; i += 37){
+            a.setStateFinal(i);
+        }
+    }
+
+    private NfaSimulation simulation(){
+        FrozenAutomate frozen = a.freeze();
+        return new NfaSimulation(frozen.classes(), frozen.transitions(), frozen.initialStates(), frozen.finalStates());
+    }
+
+    private static String word(Random random, int length){
+        StringBuilder word = new StringBuilder();
+        for(int i = 0; i < length; ++i){
+            word.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        return word.toString();
+    }
+
+    @Test
+    public void read_SameAsSets(){
+        NfaSimulation simulation = simulation();
+        FrozenAutomate frozen = a.freeze();
+        StateSet expected = frozen.createStateSet();
+        StateSet actual = frozen.createStateSet();
+        Random random = new Random(21);
+        for(int i = 0; i < 300; ++i){
+            String word = word(random, random.nextInt(50));
+            frozen.transitions().read(frozen.classes(), frozen.closure(), frozen.initialStates(), word, expected);
+            simulation.read(word, actual);
+            Assert.assertEquals(actual, expected);
+            Assert.assertEquals(simulation.match(word), frozen.hasFinalState(expected));
+        }
+        Assert.assertFalse(simulation.match("abc"));
+    }
+
+    @Test
+    public void match_NoAllocation(){
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        NfaSimulation simulation = simulation();
+        String word = word(new Random(21), 10000);
+        int matches = 0;
+        for(int i = 0; i < 200; ++i){
+            matches += simulation.match(word) ? 1 : 0;
+        }
+        long thread = Thread.currentThread().getId();
+        long overhead = -threads.getThreadAllocatedBytes(thread) + threads.getThreadAllocatedBytes(thread);
+        long before = threads.getThreadAllocatedBytes(thread);
+        for(int i = 0; i < 100; ++i){
+            matches += simulation.match(word) ? 1 : 0;
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+        Assert.assertEquals(allocated, 0);
+        Assert.assertEquals(matches, simulation.match(word) ? 300 : 0);
+    }
+
+    @Test
+    public void match_AutomateFallsBackPerSearch() throws java.io.IOException{
+        Automate b = Fixtures.nthFromEnd(200);
+        HybridMatcher hybrid = b.hybridMatcher();
+        Assert.assertNotNull(hybrid);
+        Assert.assertTrue(hybrid.usesLazyDfa());
+        Random random = new Random(22);
+        for(int round = 1; round <= 3; ++round){
+            String word = word(random, 200000);
+            Assert.assertEquals(b.match(word), word.charAt(word.length() - 201) == 'a');
+            Assert.assertEquals(hybrid.fallbacks(), 2 * round - 1);
+            Assert.assertEquals(b.match(new java.io.StringReader(word)), word.charAt(word.length() - 201) == 'a');
+            Assert.assertEquals(hybrid.fallbacks(), 2 * round);
+            for(int i = 0; i < 20; ++i){
+                String shortWord = word(random, 210 + random.nextInt(50));
+                Assert.assertEquals(b.match(shortWord), shortWord.charAt(shortWord.length() - 201) == 'a');
+            }
+            Assert.assertEquals(hybrid.fallbacks(), 2 * round);
+        }
+        String word = word(random, 200000);
+        StateSet expected = b.createStateSet();
+        StateSet actual = b.createStateSet();
+        FrozenAutomate frozen = b.freeze();
+        frozen.readString(word, expected);
+        b.readString(word, actual);
+        Assert.assertEquals(frozen.toStates(expected), b.toStates(actual));
+        Assert.assertEquals(hybrid.fallbacks(), 7);
+    }
+
+    @Test
+    public void match_AutomateSimulatesHugeNfa(){
+        Automate b = new Automate();
+        Assert.assertTrue(b.addSymbol('a'));
+        int states = 300000;
+        for(int i = 0; i < states; ++i){
+            Assert.assertTrue(b.addState(i));
+        }
+        for(int i = 0; i + 1 < states; ++i){
+            Assert.assertTrue(b.addTransition(i, 'a', i + 1));
+        }
+        Assert.assertTrue(b.addTransition(0, 'a', 0));
+        b.setStateInitial(0);
+        b.setStateFinal(5);
+        b.setStateFinal(states - 1);
+        HybridMatcher hybrid = b.hybridMatcher();
+        Assert.assertNotNull(hybrid);
+        Assert.assertFalse(hybrid.usesLazyDfa());
+        Assert.assertTrue(b.match("aaaaa"));
+        Assert.assertTrue(b.match("aaaaaaaa"));
+        Assert.assertFalse(b.match("aaaa"));
+        Assert.assertEquals(b.readString("aaa").size(), 4);
+    }
+}
@@ -0,0 +1,84 @@
+package automate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testOffHeap {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate(Automate.Storage.OFF_HEAP);
+    }
+
+    @After
+    public void tearDown(){
+        a.close();
+    }
+
+    @Test
+    public void storage_OffHeap(){
+        Assert.assertEquals(a.getStorage(), Automate.Storage.OFF_HEAP);
+        Assert.assertEquals(new Automate().getStorage(), Automate.Storage.HEAP);
+    }
+
+    @Test
+    public void addedTransition_Queries(){
+        for(int i = 0; i < 3; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, 'b', 2));
+        Assert.assertFalse(a.addTransition(1, 'b', 2));
+
+        Assert.assertTrue(a.hasTransition(0, 'a', 1));
+        Assert.assertFalse(a.hasTransition(0, 'b', 1));
+        Assert.assertEquals(a.countTransitions(), 2);
+        Assert.assertTrue(a.isDeterministic());
+        Assert.assertFalse(a.isComplete());
+        Assert.assertTrue(a.match("ab"));
+        Assert.assertFalse(a.match("a"));
+
+        Set<Integer> origin = new HashSet<>(), attend = new HashSet<>();
+        origin.add(1);
+        attend.add(2);
+        Assert.assertEquals(a.makeTransition(origin, 'b'), attend);
+    }
+
+    @Test
+    public void addedTransition_Growth(){
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        for(int i = 0; i < 1000; ++i){
+            Assert.assertTrue(a.addState(i * 7));
+        }
+        for(int i = 0; i < 1000; ++i){
+            Assert.assertTrue(a.addTransition(i * 7, 'a', ((i + 1) % 1000) * 7));
+            Assert.assertTrue(a.addTransition(i * 7, 'b', i * 7));
+        }
+        Assert.assertEquals(a.countTransitions(), 2000);
+        Assert.assertTrue(a.isComplete());
+
+        Assert.assertTrue(a.removeState(7));
+        Assert.assertFalse(a.hasTransition(0, 'a', 7));
+        Assert.assertEquals(a.countTransitions(), 1997);
+        Assert.assertFalse(a.isComplete());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void close_UseAfterClose(){
+        Assert.assertTrue(a.addState(0));
+        a.close();
+        a.hasState(0);
+    }
+}
@@ -0,0 +1,125 @@
+package automate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testPrettyPrintReader {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+    }
+
+    private static String print(Automate automate) throws IOException{
+        StringBuilder out = new StringBuilder();
+        automate.prettyPrint(out);
+        return out.toString();
+    }
+
+    @Test
+    public void read_RubyDump() throws IOException{
+        String dump = "Initial states\n\t0 \nFinal states\n\t1 \nTransitions:\n" +
+            "\tFor state 0:\n\t\tFor letter a: 1 0 \n\t\tFor letter b: \n" +
+            "\tFor state 1:\n\t\tFor letter a: \n\t\tFor letter b: 1 \n";
+        Automate b = Automate.readPrettyPrint(new StringReader(dump));
+
+        Assert.assertEquals(b.countStates(), 2);
+        Assert.assertEquals(b.countSymbols(), 2);
+        Assert.assertEquals(b.countTransitions(), 3);
+        Assert.assertTrue(b.isStateInitial(0));
+        Assert.assertTrue(b.isStateFinal(1));
+        Assert.assertTrue(b.match("abb"));
+        Assert.assertFalse(b.match("ba"));
+    }
+
+    @Test
+    public void read_RoundTrip() throws IOException{
+        Random random = new Random(17);
+        for(int i = 0; i < 50; ++i){
+            a.addState(random.nextInt(1000000));
+        }
+        for(char symbol = '!'; symbol <= '~'; symbol += 3){
+            Assert.assertTrue(a.addSymbol(symbol));
+        }
+        int[] ids = new int[(int)a.countStates()];
+        int count = 0;
+        for(int id = 0; id < 1000000 && count < ids.length; ++id){
+            if(a.hasState(id)){
+                ids[count++] = id;
+            }
+        }
+        char[] symbols = a.getAlphabet().toArray();
+        for(int i = 0; i < 400; ++i){
+            int from = ids[random.nextInt(count)];
+            int to = ids[random.nextInt(count)];
+            switch(random.nextInt(3)){
+                case 0:
+                    a.addTransition(from, Automate.Epsilon, to);
+                    break;
+                case 1:
+                    a.addTransition(from, (char)(0x100 + random.nextInt(50)), (char)(0x200 + random.nextInt(50)), to);
+                    break;
+                default:
+                    a.addTransition(from, symbols[random.nextInt(symbols.length)], to);
+            }
+        }
+        for(int i = 0; i < 5; ++i){
+            a.setStateInitial(ids[random.nextInt(count)]);
+            a.setStateFinal(ids[random.nextInt(count)]);
+        }
+        String dump = print(a);
+        Path path = Files.createTempFile("automate", ".txt");
+        try{
+            a.prettyPrint(path);
+            Automate b = Automate.readPrettyPrint(path);
+            Assert.assertEquals(print(b), dump);
+            Assert.assertEquals(b.countTransitions(), a.countTransitions());
+        }finally{
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void read_Empty() throws IOException{
+        Automate b = Automate.readPrettyPrint(new StringReader(print(a)));
+        Assert.assertEquals(b.countStates(), 0);
+        Assert.assertEquals(print(b), print(a));
+    }
+
+    @Test
+    public void read_Malformed(){
+        String[] dumps = {
+            "",
+            "Initial states\n\t0 \nTransitions:\n",
+            "Initial states\n\t0 \nFinal states\n\t\nTransitions:\n\t\tFor letter a: 0 \n",
+            "Initial states\n\t\nFinal states\n\t\nTransitions:\n\tFor state 0:\n\t\tFor letter ab: 0 \n",
+            "Initial states\n\t\nFinal states\n\t\nTransitions:\n\tFor state 0:\n\t\tFor range 00E0_00FF: 0 \n",
+            "Initial states\n\t99999999999 \nFinal states\n\t\nTransitions:\n"
+        };
+        String[] messages = {
+            "line 1: expected Initial",
+            "line 3: expected Final",
+            "line 6: expected For state",
+            "line 7: expected letter",
+            "line 7: expected range",
+            "line 2: expected a state"
+        };
+        for(int i = 0; i < dumps.length; ++i){
+            try{
+                Automate.readPrettyPrint(new StringReader(dumps[i]));
+                Assert.fail();
+            }catch(IOException e){
+                Assert.assertEquals(e.getMessage(), "Malformed automate dump at " + messages[i]);
+            }
+        }
+    }
+}
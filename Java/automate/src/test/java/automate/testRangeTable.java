@@ -0,0 +1,59 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testRangeTable {
+
+    RangeTable r;
+
+    @Before
+    public void setup(){
+        r = new RangeTable();
+        r.ensureRows(4);
+    }
+
+    @Test
+    public void add_Sorted(){
+        Assert.assertTrue(r.add(0, 'm', 'z', 1));
+        Assert.assertTrue(r.add(0, 'a', 'f', 2));
+        Assert.assertFalse(r.add(0, 'a', 'f', 2));
+        Assert.assertEquals(r.size(), 2);
+        Assert.assertEquals(r.count(0), 2);
+        Assert.assertEquals(r.low(0, 0), 'a');
+        Assert.assertEquals(r.high(0, 0), 'f');
+        Assert.assertEquals(r.target(0, 0), 2);
+        Assert.assertEquals(r.low(0, 1), 'm');
+        Assert.assertTrue(r.contains(0, 'm', 'z', 1));
+        Assert.assertFalse(r.contains(0, 'm', 'z', 2));
+    }
+
+    @Test
+    public void covers_Overlaps(){
+        Assert.assertTrue(r.add(1, 'a', 'f', 2));
+        Assert.assertTrue(r.add(1, 'h', '￿', 3));
+        Assert.assertTrue(r.covers(1, 'c'));
+        Assert.assertFalse(r.covers(1, 'g'));
+        Assert.assertTrue(r.covers(1, '中'));
+        Assert.assertFalse(r.overlaps(1));
+        Assert.assertTrue(r.add(1, 'f', 'h', 0));
+        Assert.assertTrue(r.overlaps(1));
+    }
+
+    @Test
+    public void remove_Targets(){
+        Assert.assertTrue(r.add(0, 'a', 'z', 1));
+        Assert.assertTrue(r.add(2, 'a', 'z', 1));
+        Assert.assertTrue(r.add(2, '0', '9', 3));
+        Assert.assertTrue(r.remove(2, '0', '9', 3));
+        Assert.assertFalse(r.remove(2, '0', '9', 3));
+        r.removeTarget(1);
+        Assert.assertEquals(r.size(), 0);
+        Assert.assertTrue(r.add(0, 'a', 'z', 1));
+        Assert.assertTrue(r.add(0, 'a', 'z', 2));
+        r.retainTargets(new boolean[]{true, false, true, true});
+        Assert.assertEquals(r.size(), 1);
+        Assert.assertTrue(r.contains(0, 'a', 'z', 2));
+    }
+}
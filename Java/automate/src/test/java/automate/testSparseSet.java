@@ -0,0 +1,45 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testSparseSet {
+
+    SparseSet s;
+
+    @Before
+    public void setup(){
+        s = new SparseSet(100);
+    }
+
+    @Test
+    public void add_InsertionOrder(){
+        Assert.assertTrue(s.isEmpty());
+        Assert.assertTrue(s.add(42));
+        Assert.assertTrue(s.add(7));
+        Assert.assertTrue(s.add(99));
+        Assert.assertFalse(s.add(7));
+        Assert.assertEquals(s.size(), 3);
+        Assert.assertEquals(s.get(0), 42);
+        Assert.assertEquals(s.get(1), 7);
+        Assert.assertEquals(s.get(2), 99);
+        Assert.assertTrue(s.contains(99));
+        Assert.assertFalse(s.contains(0));
+    }
+
+    @Test
+    public void clear_Stale(){
+        Assert.assertTrue(s.add(5));
+        Assert.assertTrue(s.add(6));
+        s.clear();
+        Assert.assertTrue(s.isEmpty());
+        Assert.assertFalse(s.contains(5));
+        Assert.assertFalse(s.contains(6));
+        Assert.assertTrue(s.add(6));
+        Assert.assertFalse(s.contains(5));
+        Assert.assertTrue(s.add(5));
+        Assert.assertEquals(s.get(0), 6);
+        Assert.assertEquals(s.get(1), 5);
+    }
+}
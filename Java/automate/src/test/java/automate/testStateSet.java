@@ -0,0 +1,96 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testStateSet {
+
+    StateSet s;
+
+    @Before
+    public void setup(){
+        s = new StateSet();
+    }
+
+    @Test
+    public void add_Empty(){
+        Assert.assertTrue(s.isEmpty());
+        Assert.assertEquals(s.size(), 0);
+        Assert.assertFalse(s.contains(0));
+        Assert.assertEquals(s.next(0), -1);
+    }
+
+    @Test
+    public void add_TwiceSameState(){
+        Assert.assertTrue(s.add(3));
+        Assert.assertFalse(s.add(3));
+        Assert.assertTrue(s.contains(3));
+        Assert.assertEquals(s.size(), 1);
+    }
+
+    @Test
+    public void add_BeyondCapacity(){
+        Assert.assertTrue(s.add(1000));
+        Assert.assertTrue(s.contains(1000));
+        Assert.assertFalse(s.contains(999));
+        Assert.assertEquals(s.next(0), 1000);
+    }
+
+    @Test
+    public void remove_State(){
+        Assert.assertTrue(s.add(63));
+        Assert.assertTrue(s.add(64));
+        Assert.assertTrue(s.remove(63));
+        Assert.assertFalse(s.remove(63));
+        Assert.assertFalse(s.remove(5000));
+        Assert.assertFalse(s.contains(63));
+        Assert.assertTrue(s.contains(64));
+    }
+
+    @Test
+    public void next_Iteration(){
+        int[] expected = {0, 5, 63, 64, 130};
+        for(int index : expected){
+            Assert.assertTrue(s.add(index));
+        }
+        int i = 0;
+        for(int index = s.next(0); index >= 0; index = s.next(index + 1)){
+            Assert.assertEquals(index, expected[i++]);
+        }
+        Assert.assertEquals(i, expected.length);
+    }
+
+    @Test
+    public void or_DifferentCapacities(){
+        StateSet other = new StateSet(512);
+        Assert.assertTrue(s.add(1));
+        Assert.assertTrue(other.add(400));
+        s.or(other);
+        Assert.assertTrue(s.contains(1));
+        Assert.assertTrue(s.contains(400));
+        Assert.assertTrue(s.intersects(other));
+        Assert.assertEquals(s.size(), 2);
+    }
+
+    @Test
+    public void copyFrom_SmallerSet(){
+        Assert.assertTrue(s.add(200));
+        StateSet other = new StateSet(8);
+        Assert.assertTrue(other.add(2));
+        s.copyFrom(other);
+        Assert.assertFalse(s.contains(200));
+        Assert.assertTrue(s.contains(2));
+        Assert.assertEquals(s, other);
+        Assert.assertEquals(s.hashCode(), other.hashCode());
+    }
+
+    @Test
+    public void clear_AllStates(){
+        Assert.assertTrue(s.add(1));
+        Assert.assertTrue(s.add(100));
+        s.clear();
+        Assert.assertTrue(s.isEmpty());
+        Assert.assertEquals(s, new StateSet());
+    }
+}
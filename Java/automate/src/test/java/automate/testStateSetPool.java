@@ -0,0 +1,58 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testStateSetPool {
+
+    StateSetPool p;
+
+    @Before
+    public void setup(){
+        p = new StateSetPool(200);
+    }
+
+    @Test
+    public void intern_SameSubsetTwice(){
+        StateSet s = new StateSet(200);
+        s.add(3);
+        s.add(150);
+        Assert.assertEquals(p.intern(s), 0);
+        StateSet t = new StateSet(200);
+        t.add(150);
+        t.add(3);
+        Assert.assertEquals(p.intern(t), 0);
+        Assert.assertEquals(p.size(), 1);
+    }
+
+    @Test
+    public void intern_EmptySubset(){
+        Assert.assertEquals(p.intern(new StateSet(200)), 0);
+        Assert.assertEquals(p.intern(new StateSet()), 0);
+        StateSet s = new StateSet(200);
+        s.add(0);
+        Assert.assertEquals(p.intern(s), 1);
+    }
+
+    @Test
+    public void intern_ManySubsets(){
+        StateSet s = new StateSet(200);
+        for(int i = 0; i < 1000; ++i){
+            s.clear();
+            s.add(i % 200);
+            s.add((i / 200) * 7);
+            p.intern(s);
+        }
+        int size = p.size();
+        for(int i = 0; i < 1000; ++i){
+            s.clear();
+            s.add(i % 200);
+            s.add((i / 200) * 7);
+            StateSet loaded = new StateSet();
+            p.load(p.intern(s), loaded);
+            Assert.assertEquals(loaded, s);
+        }
+        Assert.assertEquals(p.size(), size);
+    }
+}
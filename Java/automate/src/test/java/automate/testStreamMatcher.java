@@ -0,0 +1,111 @@
+package automate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testStreamMatcher {
+
+    Random random;
+
+    @Before
+    public void setup(){
+        random = new Random(23);
+    }
+
+    private String word(int length){
+        StringBuilder word = new StringBuilder();
+        for(int i = 0; i < length; ++i){
+            word.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        return word.toString();
+    }
+
+    private static class Endless extends Reader {
+
+        final char symbol;
+        long count;
+
+        Endless(char symbol) {
+            this.symbol = symbol;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length){
+            for(int i = 0; i < length; ++i){
+                buffer[offset + i] = symbol;
+            }
+            count += length;
+            return length;
+        }
+
+        @Override
+        public void close(){
+        }
+    }
+
+    @Test
+    public void match_SameAsString() throws IOException{
+        Automate[] automates = { Automate.createDeterministic(Fixtures.random(20, 60, 3)), Fixtures.random(40, 120, 5), Fixtures.random(400, 1600, 40) };
+        for(Automate a : automates){
+            for(int i = 0; i < 60; ++i){
+                String word = word(i < 50 ? random.nextInt(20) : StreamMatcher.BUFFER_CHARS * 3 + random.nextInt(100));
+                boolean expected = a.match(word);
+                byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                Assert.assertEquals(a.match(new StringReader(word)), expected);
+                Assert.assertEquals(a.match(new ByteArrayInputStream(bytes)), expected);
+                Assert.assertEquals(a.match(Channels.newChannel(new ByteArrayInputStream(bytes))), expected);
+            }
+        }
+    }
+
+    @Test
+    public void match_Unicode() throws IOException{
+        Automate a = new Automate();
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        a.addTransition(0, '\u0001', '\uFFFF', 1);
+        a.addTransition(1, '\u0001', '\uFFFF', 1);
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        String word = "\u00E9t\u00E9 \u6F22\u5B57 \uD83D\uDE00";
+        Assert.assertTrue(a.match(new ByteArrayInputStream(word.getBytes(StandardCharsets.UTF_8))));
+        Assert.assertFalse(a.match(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test(expected = MalformedInputException.class)
+    public void match_MalformedInput() throws IOException{
+        Automate a = Fixtures.random(40, 120, 5);
+        a.match(new ByteArrayInputStream(new byte[]{ 'a', (byte)0xC3, 'a' }));
+    }
+
+    @Test
+    public void match_StopsWhenDead() throws IOException{
+        Automate a = new Automate();
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        a.addTransition(0, 'a', 1);
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        Endless unknown = new Endless('z');
+        Assert.assertFalse(a.match(unknown));
+        Assert.assertEquals(unknown.count, StreamMatcher.BUFFER_CHARS);
+        Endless dead = new Endless('a');
+        Assert.assertFalse(a.match(dead));
+        Assert.assertEquals(dead.count, StreamMatcher.BUFFER_CHARS);
+        Automate b = Fixtures.random(400, 1600, 40);
+        Endless absent = new Endless('c');
+        Assert.assertFalse(b.match(absent));
+        Assert.assertEquals(absent.count, StreamMatcher.BUFFER_CHARS);
+    }
+}
@@ -0,0 +1,202 @@
+package automate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testSubstringSearch {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+        Assert.assertTrue(a.addSymbol('a'));
+        Assert.assertTrue(a.addSymbol('b'));
+        for(int i = 0; i < 3; ++i){
+            Assert.assertTrue(a.addState(i));
+        }
+        a.addTransition(0, 'a', 1);
+        a.addTransition(1, 'b', 2);
+        a.setStateInitial(0);
+        a.setStateFinal(2);
+    }
+
+    private static Automate random(Random random, int states){
+        Automate res = new Automate();
+        Assert.assertTrue(res.addSymbol('a'));
+        Assert.assertTrue(res.addSymbol('b'));
+        for(int i = 0; i < states; ++i){
+            Assert.assertTrue(res.addState(i));
+        }
+        for(int i = 0; i < 2 * states; ++i){
+            res.addTransition(random.nextInt(states), random.nextBoolean() ? 'a' : 'b', random.nextInt(states));
+        }
+        for(int i = 0; i < states / 3; ++i){
+            res.addTransition(random.nextInt(states), Automate.Epsilon, random.nextInt(states));
+        }
+        res.addTransition(random.nextInt(states), 'c', 'd', random.nextInt(states));
+        res.setStateInitial(0);
+        res.setStateFinal(1 + random.nextInt(states - 1));
+        return res;
+    }
+
+    private static Span expected(Automate a, String text, int from){
+        for(int start = from; start <= text.length(); ++start){
+            for(int end = text.length(); end >= start; --end){
+                if(a.match(text.substring(start, end))){
+                    return new Span(start, end);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void find_Spans(){
+        Assert.assertEquals(a.find("xxabyab"), new Span(2, 4));
+        Assert.assertEquals(a.find("xxabyab", 3), new Span(5, 7));
+        Assert.assertNull(a.find("xxabyab", 6));
+        Assert.assertEquals(a.findAll("xxabyab"), Arrays.asList(new Span(2, 4), new Span(5, 7)));
+        Assert.assertEquals(a.findAll("aabab"), Arrays.asList(new Span(1, 3), new Span(3, 5)));
+        Assert.assertEquals(a.findAll("ba"), Collections.emptyList());
+    }
+
+    @Test
+    public void find_LeftmostStart(){
+        a.addTransition(0, 'a', 0);
+        Assert.assertEquals(a.find("baaab"), new Span(1, 5));
+        Assert.assertEquals(a.find("baaab", 2), new Span(2, 5));
+    }
+
+    @Test
+    public void find_EmptyWord(){
+        a.setStateFinal(0);
+        Assert.assertEquals(a.find("ab"), new Span(0, 2));
+        Assert.assertEquals(a.find("ba"), new Span(0, 0));
+        Assert.assertEquals(a.findAll("b"), Arrays.asList(new Span(0, 0), new Span(1, 1)));
+        Assert.assertEquals(a.findAll("abab"), Arrays.asList(new Span(0, 2), new Span(2, 4), new Span(4, 4)));
+    }
+
+    @Test
+    public void find_AfterChanges(){
+        Assert.assertEquals(a.find("xab"), new Span(1, 3));
+        a.setStateFinal(1);
+        Assert.assertEquals(a.find("xab"), new Span(1, 3));
+        Assert.assertEquals(a.find("xaa"), new Span(1, 2));
+    }
+
+    @Test
+    public void find_LeftmostLongest(){
+        Automate b = new Automate();
+        for(char symbol = 'a'; symbol <= 'd'; ++symbol){
+            Assert.assertTrue(b.addSymbol(symbol));
+        }
+        for(int i = 0; i < 6; ++i){
+            Assert.assertTrue(b.addState(i));
+        }
+        b.addTransition(0, 'a', 1);
+        b.addTransition(1, 'b', 2);
+        b.addTransition(2, 'c', 3);
+        b.addTransition(3, 'd', 4);
+        b.addTransition(0, 'c', 5);
+        b.setStateInitial(0);
+        b.setStateFinal(4);
+        b.setStateFinal(5);
+        Assert.assertEquals(b.find("abcd"), new Span(0, 4));
+        Assert.assertEquals(b.find("abcd", 1), new Span(2, 3));
+        Assert.assertEquals(b.findAll("abcdcabc"), Arrays.asList(new Span(0, 4), new Span(4, 5), new Span(7, 8)));
+    }
+
+    @Test
+    public void find_Longest(){
+        Automate b = new Automate();
+        Assert.assertTrue(b.addSymbol('a'));
+        Assert.assertTrue(b.addState(0));
+        Assert.assertTrue(b.addState(1));
+        b.addTransition(0, 'a', 1);
+        b.addTransition(1, 'a', 1);
+        b.setStateInitial(0);
+        b.setStateFinal(1);
+        Assert.assertEquals(b.find("aaa"), new Span(0, 3));
+        Assert.assertEquals(b.findAll("aaa"), Arrays.asList(new Span(0, 3)));
+        Assert.assertEquals(b.findAll("aa-aaa"), Arrays.asList(new Span(0, 2), new Span(3, 6)));
+    }
+
+    @Test(timeout = 10000)
+    public void find_StopsNearMatch(){
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 200000; ++i){
+            text.append("ab");
+        }
+        int count = 0;
+        for(Span span = a.find(text); span != null; span = a.find(text, span.end())){
+            Assert.assertEquals(span, new Span(2 * count, 2 * count + 2));
+            ++count;
+        }
+        Assert.assertEquals(count, 200000);
+    }
+
+    @Test(timeout = 10000)
+    public void findAll_LongLivedThreads(){
+        Automate b = new Automate();
+        Assert.assertTrue(b.addSymbol('a'));
+        Assert.assertTrue(b.addSymbol('b'));
+        Assert.assertTrue(b.addSymbol('c'));
+        for(int i = 0; i < 4; ++i){
+            Assert.assertTrue(b.addState(i));
+        }
+        b.addTransition(0, 'a', 1);
+        b.addTransition(0, 'a', 2);
+        b.addTransition(2, 'a', 'c', 2);
+        b.addTransition(2, 'c', 3);
+        b.setStateInitial(0);
+        b.setStateFinal(1);
+        b.setStateFinal(3);
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 200000; ++i){
+            text.append('a');
+        }
+        List<Span> spans = b.findAll(text);
+        Assert.assertEquals(spans.size(), 200000);
+        Assert.assertEquals(spans.get(199999), new Span(199999, 200000));
+        text.append('c');
+        Assert.assertEquals(b.findAll(text), Arrays.asList(new Span(0, 200001)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void find_OutOfBounds(){
+        a.find("ab", 3);
+    }
+
+    @Test
+    public void find_SameAsBruteForce(){
+        Random random = new Random(25);
+        for(int round = 0; round < 40; ++round){
+            Automate b = random(random, 3 + random.nextInt(8));
+            for(int i = 0; i < 10; ++i){
+                StringBuilder text = new StringBuilder();
+                int length = random.nextInt(25);
+                for(int j = 0; j < length; ++j){
+                    text.append("aabbcx".charAt(random.nextInt(6)));
+                }
+                String word = text.toString();
+                List<Span> expected = new ArrayList<>();
+                int from = 0;
+                Span span;
+                while(from <= word.length() && (span = expected(b, word, from)) != null){
+                    Assert.assertEquals(b.find(word, from), span);
+                    expected.add(span);
+                    from = span.length() == 0 ? span.end() + 1 : span.end();
+                }
+                Assert.assertEquals(b.findAll(word), expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package automate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class testSymbolClasses {
+
+    Automate a;
+
+    @Before
+    public void setup(){
+        a = new Automate();
+        Assert.assertTrue(a.addState(0));
+        Assert.assertTrue(a.addState(1));
+        a.setStateInitial(0);
+        a.setStateFinal(1);
+        for(char c = 'a'; c <= 'z'; ++c){
+            Assert.assertTrue(a.addSymbol(c));
+        }
+        for(char c = '0'; c <= '9'; ++c){
+            Assert.assertTrue(a.addSymbol(c));
+        }
+    }
+
+    @Test
+    public void symbolClasses_NoTransition(){
+        SymbolClasses classes = a.symbolClasses();
+        Assert.assertEquals(classes.count(), 1);
+        Assert.assertEquals(classes.classOf('a'), classes.classOf('5'));
+        Assert.assertEquals(classes.classOf(Automate.Epsilon), SymbolClasses.EPSILON);
+        Assert.assertEquals(classes.classOf('#'), SymbolClasses.NONE);
+    }
+
+    @Test
+    public void symbolClasses_LettersAndDigits(){
+        for(char c = 'a'; c <= 'z'; ++c){
+            Assert.assertTrue(a.addTransition(0, c, 1));
+            Assert.assertTrue(a.addTransition(1, c, 1));
+        }
+        for(char c = '0'; c <= '9'; ++c){
+            Assert.assertTrue(a.addTransition(1, c, 1));
+        }
+
+        SymbolClasses classes = a.symbolClasses();
+        Assert.assertEquals(classes.count(), 2);
+        Assert.assertEquals(classes.classOf('a'), classes.classOf('z'));
+        Assert.assertEquals(classes.classOf('0'), classes.classOf('9'));
+        Assert.assertNotEquals(classes.classOf('a'), classes.classOf('0'));
+        Assert.assertEquals(classes.classOf(classes.representative(classes.classOf('q'))), classes.classOf('q'));
+        Assert.assertTrue(a.match("x42"));
+        Assert.assertFalse(a.match("4x2"));
+    }
+
+    @Test
+    public void symbolClasses_SplitByTarget(){
+        Assert.assertTrue(a.addState(2));
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertTrue(a.addTransition(0, 'b', 1));
+        Assert.assertTrue(a.addTransition(0, 'c', 2));
+        Assert.assertTrue(a.addTransition(1, 'a', 1));
+        Assert.assertTrue(a.addTransition(1, 'b', 2));
+
+        SymbolClasses classes = a.symbolClasses();
+        Assert.assertEquals(classes.count(), 4);
+        Assert.assertNotEquals(classes.classOf('a'), classes.classOf('b'));
+        Assert.assertNotEquals(classes.classOf('b'), classes.classOf('c'));
+        Assert.assertEquals(classes.classOf('d'), classes.classOf('0'));
+    }
+
+    @Test
+    public void symbolClasses_UpdatedOnMutation(){
+        Assert.assertTrue(a.addTransition(0, 'a', 1));
+        Assert.assertEquals(a.symbolClasses().count(), 2);
+        Assert.assertTrue(a.removeTransition(0, 'a', 1));
+        Assert.assertEquals(a.symbolClasses().count(), 1);
+        Assert.assertTrue(a.addSymbol('#'));
+        Assert.assertEquals(a.symbolClasses().classOf('#'), a.symbolClasses().classOf('a'));
+    }
+}